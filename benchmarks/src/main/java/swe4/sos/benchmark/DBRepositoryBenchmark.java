@@ -0,0 +1,168 @@
+package swe4.sos.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import swe4.sos.db.DBRepository;
+import swe4.sos.gui.infrastructure.RepositoryCommand;
+import swe4.sos.gui.infrastructure.RepositoryCommands;
+import swe4.sos.gui.model.AppointmentSurvey;
+
+import java.rmi.RemoteException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hydration of complete surveys by {@link DBRepository}: the id query plus the four chunked
+ * queries of {@code loadSurveys}, against H2 in MySQL mode. H2 plans some of these queries
+ * differently than MySQL and there is no network in between, so compare runs with each other
+ * rather than with production latencies.
+ * <p>
+ * User 1 created half of the {@code surveys} and participates in the other half; user 2 is
+ * invited to all of them. Every survey has {@code options} options, each voted for by
+ * {@code voters} users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DBRepositoryBenchmark {
+
+  private static final String URL = "jdbc:h2:mem:sos;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;" +
+    // Options DBRepository requires of the MySQL driver; H2 behaves that way anyway
+    "IGNORE_UNKNOWN_SETTINGS=TRUE;allowMultiQueries=true;useAffectedRows=true";
+
+  @Param({"10", "100", "1000"})
+  public int surveys;
+
+  @Param({"5"})
+  public int options;
+
+  @Param({"20"})
+  public int voters;
+
+  private DBRepository repository;
+  private List<RepositoryCommand<?>> loadOneSurvey;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException {
+    try (Connection conn = DriverManager.getConnection(URL, "sa", "");
+         Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE ALIAS IF NOT EXISTS GET_LOCK FOR 'swe4.sos.benchmark.H2Functions.getLock'");
+      stmt.execute("CREATE ALIAS IF NOT EXISTS RELEASE_LOCK FOR 'swe4.sos.benchmark.H2Functions.releaseLock'");
+    }
+    repository = DBRepository.getInstance(URL, "sa", "");
+    repository.migrateSchema();
+    // Large IN lists are slow on H2; logging each of them would flood the benchmark output
+    repository.getSqlProfiler().setSlowThresholdMillis(60_000);
+
+    try (Connection conn = DriverManager.getConnection(URL, "sa", "")) {
+      conn.setAutoCommit(false);
+      insertData(conn);
+      conn.commit();
+    }
+    // Inside a transactional batch getSurvey bypasses the survey cache and always reads the database
+    loadOneSurvey = List.of(new RepositoryCommands.GetSurvey(surveys / 2));
+  }
+
+  private void insertData(Connection conn) throws SQLException {
+    int users = Math.max(2, voters);
+    try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO `user` (id, username, email, password) VALUES (?, ?, ?, ?)")) {
+      for (int id = 1; id <= users; id++) {
+        pstmt.setInt(1, id);
+        pstmt.setString(2, "user" + id);
+        pstmt.setString(3, "user" + id + "@example.com");
+        pstmt.setString(4, "secret");
+        pstmt.addBatch();
+      }
+      pstmt.executeBatch();
+    }
+
+    LocalDateTime now = LocalDateTime.of(2025, 6, 2, 8, 0);
+    try (PreparedStatement survey = conn.prepareStatement("INSERT INTO survey (id, created_by, label, description, created_at, joinkey, open, version) VALUES (?, ?, ?, ?, ?, ?, 1, ?)");
+         PreparedStatement participation = conn.prepareStatement("INSERT INTO participation (user_id, survey_id) VALUES (?, ?)");
+         PreparedStatement invitation = conn.prepareStatement("INSERT INTO invitation (user_id, survey_id) VALUES (2, ?)");
+         PreparedStatement option = conn.prepareStatement("INSERT INTO survey_option (id, timeOption, survey_id, vote_count, preferred_count) VALUES (?, ?, ?, ?, ?)");
+         PreparedStatement vote = conn.prepareStatement("INSERT INTO vote (user_id, survey_option_id, is_preferred) VALUES (?, ?, ?)")) {
+      int optionId = 0;
+      for (int surveyId = 1; surveyId <= surveys; surveyId++) {
+        boolean created = surveyId % 2 == 1;
+        survey.setInt(1, surveyId);
+        survey.setInt(2, created ? 1 : 2);
+        survey.setString(3, "Survey " + surveyId);
+        survey.setString(4, "Benchmark survey");
+        survey.setTimestamp(5, Timestamp.valueOf(now));
+        survey.setString(6, "key-" + surveyId);
+        survey.setLong(7, surveyId);
+        survey.addBatch();
+        if (!created) {
+          participation.setInt(1, 1);
+          participation.setInt(2, surveyId);
+          participation.addBatch();
+        }
+        invitation.setInt(1, surveyId);
+        invitation.addBatch();
+
+        for (int i = 0; i < options; i++) {
+          optionId++;
+          option.setInt(1, optionId);
+          option.setTimestamp(2, Timestamp.valueOf(now.plusDays(i + 1)));
+          option.setInt(3, surveyId);
+          option.setInt(4, voters);
+          option.setInt(5, i == 0 ? voters : 0);
+          option.addBatch();
+          for (int userId = 1; userId <= voters; userId++) {
+            vote.setInt(1, userId);
+            vote.setInt(2, optionId);
+            vote.setBoolean(3, i == 0);
+            vote.addBatch();
+          }
+        }
+      }
+      survey.executeBatch();
+      participation.executeBatch();
+      invitation.executeBatch();
+      option.executeBatch();
+      vote.executeBatch();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    repository.shutdown();
+  }
+
+  @Benchmark
+  public List<AppointmentSurvey> participatedSurveys() throws RemoteException {
+    return repository.getParticipatedSurveys(1);
+  }
+
+  @Benchmark
+  public List<AppointmentSurvey> invitedSurveys() throws RemoteException {
+    return repository.getInvitedSurveys(2);
+  }
+
+  @Benchmark
+  public List<Object> singleSurvey() throws RemoteException {
+    return repository.executeBatch(loadOneSurvey, true);
+  }
+}
@@ -0,0 +1,88 @@
+package swe4.sos.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import swe4.sos.gui.infrastructure.FakeRepository;
+import swe4.sos.gui.model.AppointmentSurvey;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The dashboard lookups of {@link FakeRepository} with the whole data set in memory. The
+ * {@code surveys} are spread evenly over the {@code users} as creators, and every survey
+ * invites the creator's successor, so a user sees about {@code 2 * surveys / users} surveys.
+ * <p>
+ * FakeRepository is a singleton; JMH runs every parameter combination in its own JVM, so each
+ * one starts with an empty repository. The million-survey data set needs a few GB of heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class FakeRepositoryBenchmark {
+
+  @Param({"10000", "100000", "1000000"})
+  public int surveys;
+
+  @Param({"1000"})
+  public int users;
+
+  private FakeRepository repository;
+  private int firstUserId;
+
+  @Setup(Level.Trial)
+  public void setUp() throws RemoteException {
+    // FakeRepository prints the join key of every new survey
+    PrintStream out = System.out;
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    try {
+      repository = FakeRepository.getInstance();
+      for (int i = 0; i < users; i++) {
+        repository.addUser("benchmark" + i, "secret", "benchmark" + i + "@example.com");
+      }
+      firstUserId = repository.getUserByUsername("benchmark0").getId();
+
+      for (int i = 0; i < surveys; i++) {
+        repository.addSurvey(userId(i), "Survey " + i, "Benchmark survey");
+      }
+      for (int i = 0; i < users; i++) {
+        for (AppointmentSurvey survey : repository.getParticipatedSurveys(userId(i))) {
+          repository.inviteUser(survey.getId(), userId(i + 1));
+        }
+      }
+    } finally {
+      System.setOut(out);
+    }
+  }
+
+  private int userId(int index) {
+    return firstUserId + index % users;
+  }
+
+  @Benchmark
+  public List<AppointmentSurvey> participatedSurveys() throws RemoteException {
+    return repository.getParticipatedSurveys(userId(ThreadLocalRandom.current().nextInt(users)));
+  }
+
+  @Benchmark
+  public List<AppointmentSurvey> invitedSurveys() throws RemoteException {
+    return repository.getInvitedSurveys(userId(ThreadLocalRandom.current().nextInt(users)));
+  }
+}
@@ -0,0 +1,37 @@
+package swe4.sos.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import swe4.sos.gui.infrastructure.JoinKeyService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JoinKeyService#generateJoinKey} alone and with all cores generating keys at once, since
+ * every thread draws from the same {@code SecureRandom}. Other thread counts via {@code -t}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JoinKeyBenchmark {
+
+  @Benchmark
+  @Threads(1)
+  public String generateSingleThreaded() {
+    return JoinKeyService.generateJoinKey();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public String generateContended() {
+    return JoinKeyService.generateJoinKey();
+  }
+}
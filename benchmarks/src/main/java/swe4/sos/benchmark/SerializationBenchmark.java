@@ -0,0 +1,91 @@
+package swe4.sos.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import swe4.sos.gui.model.AppointmentSurvey;
+import swe4.sos.gui.model.SurveyOption;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Java serialization of a complete {@link AppointmentSurvey}, as RMI sends it. Each call uses a
+ * fresh stream like a remote call does. The serialized size of every configuration is printed
+ * at the end of its trial, since it determines the transfer time over the network.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+  @Param({"10", "1000"})
+  public int participants;
+
+  @Param({"5", "50"})
+  public int options;
+
+  private AppointmentSurvey survey;
+  private byte[] serialized;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    SplittableRandom random = new SplittableRandom(42);
+    LocalDateTime start = LocalDateTime.of(2025, 6, 2, 8, 0);
+    survey = new AppointmentSurvey(1, 1, "Benchmark", "Serialized survey", start, "benchmark-key");
+    for (int userId = 1; userId <= participants; userId++) {
+      survey.join(userId);
+      survey.inviteUser(userId);
+    }
+    for (int i = 0; i < options; i++) {
+      SurveyOption option = new SurveyOption(i + 1, start.plusDays(1).plusMinutes(30L * i));
+      for (int userId = 1; userId <= participants; userId++) {
+        if (random.nextInt(3) == 0) option.vote(userId);
+        if (random.nextInt(10) == 0) option.prefer(userId);
+      }
+      survey.addOption(option);
+    }
+    serialized = serialize();
+  }
+
+  @TearDown(Level.Trial)
+  public void printSize() {
+    System.out.printf("%nSerialized size with %d participants and %d options: %d bytes%n",
+      participants, options, serialized.length);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(survey);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Benchmark
+  public Object deserialize() throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+      return in.readObject();
+    }
+  }
+}
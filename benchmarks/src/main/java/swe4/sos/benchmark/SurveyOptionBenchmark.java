@@ -0,0 +1,110 @@
+package swe4.sos.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import swe4.sos.gui.model.AppointmentSurvey;
+import swe4.sos.gui.model.SurveyOption;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ordering of survey options by votes: {@link SurveyOption#compareTo} itself, building the sorted
+ * set, and keeping it sorted while users change their votes. The repositories re-insert all
+ * options of a survey after a vote ({@code changeVoteReinsertAll}); {@code changeVoteReinsertOne}
+ * only moves the option that changed, as a reference for cheaper alternatives.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SurveyOptionBenchmark {
+
+  @Param({"5", "50", "500"})
+  public int options;
+
+  @Param({"100"})
+  public int voters;
+
+  private List<SurveyOption> optionList;
+  private AppointmentSurvey survey;
+  private SplittableRandom random;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    random = new SplittableRandom(42);
+    LocalDateTime start = LocalDateTime.of(2025, 6, 2, 8, 0);
+    optionList = new ArrayList<>(options);
+    survey = new AppointmentSurvey(1, 1, "Benchmark", "Option ordering", start, "benchmark-key");
+    for (int i = 0; i < options; i++) {
+      SurveyOption option = new SurveyOption(i + 1, start.plusHours(i));
+      for (int userId = 1; userId <= voters; userId++) {
+        if (random.nextInt(4) == 0) option.vote(userId);
+        if (random.nextInt(20) == 0) option.prefer(userId);
+      }
+      optionList.add(option);
+      survey.addOption(option);
+    }
+  }
+
+  @Benchmark
+  public int compareTo() {
+    SurveyOption a = optionList.get(random.nextInt(options));
+    SurveyOption b = optionList.get(random.nextInt(options));
+    return a.compareTo(b);
+  }
+
+  @Benchmark
+  public SortedSet<SurveyOption> sortOptions() {
+    return new TreeSet<>(optionList);
+  }
+
+  // What FakeRepository.updateOptions does for every vote
+  @Benchmark
+  public SortedSet<SurveyOption> changeVoteReinsertAll() {
+    int userId = 1 + random.nextInt(voters);
+    int optionId = 1 + random.nextInt(options);
+    SortedSet<SurveyOption> sorted = survey.getOptions();
+    List<SurveyOption> copy = new ArrayList<>(sorted);
+    sorted.clear();
+    for (SurveyOption option : copy) {
+      toggleVote(option, userId, optionId);
+    }
+    sorted.addAll(copy);
+    return sorted;
+  }
+
+  @Benchmark
+  public SortedSet<SurveyOption> changeVoteReinsertOne() {
+    int userId = 1 + random.nextInt(voters);
+    SurveyOption option = optionList.get(random.nextInt(options));
+    SortedSet<SurveyOption> sorted = survey.getOptions();
+    sorted.remove(option);
+    toggleVote(option, userId, option.getId());
+    sorted.add(option);
+    return sorted;
+  }
+
+  private static void toggleVote(SurveyOption option, int userId, int optionId) {
+    if (option.getId() != optionId) return;
+    if (option.hasVoted(userId)) option.revokeVote(userId);
+    else option.vote(userId);
+  }
+}
@@ -1,6 +1,11 @@
+# The tables are created by the same migration scripts the server applies at startup
+$migrationDir = Join-Path $PSScriptRoot '..\src\main\resources\swe4\sos\db\migrations'
+
 $schema=@'
 create schema if not exists sos_db;
 use sos_db;
+drop table if exists schema_version;
+drop table if exists survey_removal;
 drop table if exists vote;
 drop table if exists survey_option;
 drop table if exists participation;
@@ -8,55 +13,24 @@ drop table if exists invitation;
 drop table if exists survey;
 drop table if exists user;
 
-create table `user` (id int auto_increment primary key,
-                   username varchar(30) not null unique,
-                   email varchar(40) not null unique,
-                   password varchar(30) not null);
-
-create table survey (id int auto_increment primary key,
-                     created_by int not null,
-                     foreign key (created_by)
-                                   references `user`(id) on delete cascade,
-                     label varchar(30) not null,
-                     description varchar(255) not null,
-                     created_at datetime not null,
-                     joinkey varchar(40) not null unique,
-                     open tinyint(1) not null);
-
-create table invitation (user_id int not null,
-                         foreign key (user_id)
-                                references `user`(id) on delete cascade,
-                         survey_id int not null,
-                         foreign key (survey_id)
-                                references survey(id) on delete cascade,
-                         constraint invitation_user_survey_ids_pk primary key (user_id, survey_id)
-                         );
-
-create table participation (user_id int not null,
-                            foreign key (user_id)
-                                   references `user`(id) on delete cascade,
-                            survey_id int not null,
-                            foreign key (survey_id)
-                                   references survey(id) on delete cascade,
-                            constraint participation_user_survey_ids_pk primary key (user_id, survey_id)
-                           );
+create table schema_version (version int primary key,
+                             description varchar(100) not null,
+                             status varchar(20) not null,
+                             applied_at datetime not null);
+'@
 
-create table survey_option (id int auto_increment primary key,
-                            timeOption datetime not null,
-                            survey_id int not null,
-                            foreign key (survey_id)
-                                references survey(id) on delete cascade
-                           );
+$migrations = Get-ChildItem $migrationDir -Filter 'V*__*.sql' |
+  Sort-Object { [int]($_.BaseName -replace '^V(\d+)__.*$', '$1') }
+foreach ($file in $migrations) {
+  $version = [int]($file.BaseName -replace '^V(\d+)__.*$', '$1')
+  $description = ($file.BaseName -replace '^V\d+__', '') -replace '_', ' '
+  $schema += "`n" + (Get-Content $file.FullName -Raw)
+  $schema += "`ninsert into schema_version (version, description, status, applied_at) values ($version, '$description', 'applied', now());`n"
+}
 
-create table vote (user_id int not null,
-                    foreign key (user_id) references `user`(id) on delete cascade,
-                    survey_option_id int not null,
-                    foreign key (survey_option_id) references survey_option(id) on delete cascade,
-                    constraint vote_user_option_ids_pk primary key (user_id, survey_option_id),
-                    is_preferred tinyint(1)
-                   );
+$schema+=@'
 
-                   -- ---------------------------------
+-- ---------------------------------
 -- MOCK DATA based on FakeRepository
 -- ---------------------------------
 
@@ -102,6 +76,11 @@ INSERT INTO vote (user_id, survey_option_id, is_preferred) VALUES (2, 2, 0); --
 INSERT INTO vote (user_id, survey_option_id, is_preferred) VALUES (2, 3, 0); -- user votes
 -- Votes for Survey 2, Option 4
 INSERT INTO vote (user_id, survey_option_id, is_preferred) VALUES (2, 4, 0); -- user votes
+
+-- Tallies for the votes above
+UPDATE survey_option so
+SET vote_count = (SELECT COUNT(*) FROM vote v WHERE v.survey_option_id = so.id),
+    preferred_count = (SELECT COUNT(*) FROM vote v WHERE v.survey_option_id = so.id AND v.is_preferred = 1);
 '@
 
 echo $schema | docker exec -i mysql mysql
@@ -4,6 +4,8 @@ module swe4.sos.serhiiKhokhlov {
   requires javafx.graphics;
   requires java.rmi;
   requires java.sql;
+  requires java.management;
+  requires jdk.jfr;
 
   // Open only to javafx.fxml if FXML needs access to controllers
   opens swe4.sos.gui.controller to javafx.fxml;
@@ -16,4 +18,5 @@ module swe4.sos.serhiiKhokhlov {
   exports swe4.sos.gui.model;
   exports swe4.sos.server.client;
   exports swe4.sos.gui.infrastructure to java.rmi;
+  exports swe4.sos.server.metrics; // MXBeans are accessed reflectively from outside java.management
 }
@@ -0,0 +1,77 @@
+package swe4.sos.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One database transaction shared by all commands of a transactional
+ * {@link DBRepository#executeBatch} call. The repository methods run unchanged: they get
+ * {@link #shared()} instead of a pooled connection, on which their own commit, rollback and
+ * close do nothing, so the batch decides alone whether the work is committed. Version clock
+ * releases and change notifications are held back until that decision.
+ */
+class BatchTransaction {
+
+  private final Connection connection;
+  private final Connection shared;
+  private final List<Long> versions = new ArrayList<>();
+  private final List<Runnable> notifications = new ArrayList<>();
+
+  BatchTransaction(Connection connection) {
+    this.connection = connection;
+    this.shared = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+      new Class<?>[]{Connection.class}, new SharedHandler());
+  }
+
+  Connection shared() {
+    return shared;
+  }
+
+  void deferVersion(long version) {
+    versions.add(version);
+  }
+
+  void deferNotification(Runnable notification) {
+    notifications.add(notification);
+  }
+
+  List<Long> versions() {
+    return versions;
+  }
+
+  List<Runnable> notifications() {
+    return notifications;
+  }
+
+  private final class SharedHandler implements InvocationHandler {
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close", "commit", "rollback", "setAutoCommit" -> {
+          return null;
+        }
+        case "getAutoCommit" -> {
+          return false;
+        }
+        case "equals" -> {
+          return proxy == args[0];
+        }
+        case "hashCode" -> {
+          return System.identityHashCode(proxy);
+        }
+        default -> {
+          try {
+            return method.invoke(connection, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+        }
+      }
+    }
+  }
+}
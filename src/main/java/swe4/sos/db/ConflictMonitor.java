@@ -0,0 +1,51 @@
+package swe4.sos.db;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts optimistic survey updates and the ones rejected because the survey had changed in
+ * the meantime, overall and per survey, to show where clients contend.
+ */
+public class ConflictMonitor {
+
+  public record SurveyContention(int surveyId, long updates, long conflicts) {
+    public double conflictRate() {
+      return updates == 0 ? 0 : (double) conflicts / updates;
+    }
+  }
+
+  public record Statistics(long updates, long conflicts, List<SurveyContention> mostContended) {
+  }
+
+  private static final int REPORTED_SURVEYS = 10;
+
+  private final Map<Integer, long[]> bySurvey = new HashMap<>(); // {updates, conflicts}
+  private long updates, conflicts;
+
+  synchronized void recordUpdate(int surveyId, boolean conflict) {
+    long[] counts = bySurvey.computeIfAbsent(surveyId, id -> new long[2]);
+    counts[0]++;
+    updates++;
+    if (conflict) {
+      counts[1]++;
+      conflicts++;
+    }
+  }
+
+  synchronized void forget(int surveyId) {
+    bySurvey.remove(surveyId);
+  }
+
+  synchronized Statistics getStatistics() {
+    List<SurveyContention> mostContended = bySurvey.entrySet().stream()
+      .filter(e -> e.getValue()[1] > 0)
+      .map(e -> new SurveyContention(e.getKey(), e.getValue()[0], e.getValue()[1]))
+      .sorted(Comparator.comparingLong(SurveyContention::conflicts).reversed())
+      .limit(REPORTED_SURVEYS)
+      .toList();
+    return new Statistics(updates, conflicts, mostContended);
+  }
+}
@@ -0,0 +1,280 @@
+package swe4.sos.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded JDBC connection pool used by {@link DBRepository}.
+ * Borrowed connections are proxies: calling {@code close()} hands the physical
+ * connection back to the pool instead of closing it, so existing
+ * try-with-resources blocks keep working unchanged.
+ */
+public class ConnectionPool {
+
+  public record Config(int minSize, int maxSize, Duration idleTimeout,
+                       Duration maxWait, Duration validationInterval) {
+    public Config {
+      if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+        throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+      }
+    }
+
+    public static Config defaults() {
+      return new Config(2, 10, Duration.ofMinutes(5), Duration.ofSeconds(10), Duration.ofSeconds(5));
+    }
+  }
+
+  public record Statistics(int active, int idle, int waiters, long created, long evicted,
+                           long borrows, long timeouts, double avgBorrowMillis, double maxBorrowMillis) {
+  }
+
+  private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+  private final String connectionString;
+  private final String userName;
+  private final String password;
+  private final Config config;
+
+  private final Semaphore permits;
+  private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+  private final ScheduledExecutorService evictor;
+
+  private final AtomicInteger active = new AtomicInteger();
+  private final AtomicInteger waiters = new AtomicInteger();
+  private final AtomicLong created = new AtomicLong();
+  private final AtomicLong evicted = new AtomicLong();
+  private final AtomicLong borrows = new AtomicLong();
+  private final AtomicLong timeouts = new AtomicLong();
+  private final AtomicLong borrowNanosTotal = new AtomicLong();
+  private final AtomicLong borrowNanosMax = new AtomicLong();
+
+  public ConnectionPool(String connectionString, String userName, String password, Config config) {
+    this.connectionString = connectionString;
+    this.userName = userName;
+    this.password = password;
+    this.config = config;
+    this.permits = new Semaphore(config.maxSize(), true);
+
+    this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "sos-pool-evictor");
+      t.setDaemon(true);
+      return t;
+    });
+    long period = Math.max(1, config.idleTimeout().toMillis() / 2);
+    evictor.scheduleWithFixedDelay(this::maintain, 0, period, TimeUnit.MILLISECONDS);
+  }
+
+  public Connection borrow() throws SQLException {
+    long start = System.nanoTime();
+    waiters.incrementAndGet();
+    try {
+      if (!permits.tryAcquire(config.maxWait().toMillis(), TimeUnit.MILLISECONDS)) {
+        timeouts.incrementAndGet();
+        throw new SQLException("Timed out after " + config.maxWait().toMillis()
+          + " ms waiting for a pooled connection");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted while waiting for a pooled connection");
+    } finally {
+      waiters.decrementAndGet();
+    }
+
+    try {
+      PooledConnection pooled = takeValidIdle();
+      if (pooled == null) {
+        pooled = open();
+      }
+      active.incrementAndGet();
+      recordBorrow(System.nanoTime() - start);
+      return pooled.lease();
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  public Statistics getStatistics() {
+    long count = borrows.get();
+    return new Statistics(active.get(), idle.size(), waiters.get(), created.get(), evicted.get(),
+      count, timeouts.get(),
+      count == 0 ? 0 : borrowNanosTotal.get() / (double) count / 1_000_000,
+      borrowNanosMax.get() / 1_000_000.0);
+  }
+
+  public void shutdown() {
+    evictor.shutdownNow();
+    PooledConnection pooled;
+    while ((pooled = idle.pollFirst()) != null) {
+      pooled.closePhysical();
+    }
+  }
+
+  private PooledConnection takeValidIdle() {
+    PooledConnection pooled;
+    // LIFO: the most recently used connection is the most likely to still be alive
+    while ((pooled = idle.pollFirst()) != null) {
+      if (pooled.idleNanos() < config.validationInterval().toNanos() || pooled.isValid()) {
+        return pooled;
+      }
+      pooled.closePhysical();
+      evicted.incrementAndGet();
+    }
+    return null;
+  }
+
+  private PooledConnection open() throws SQLException {
+    Connection physical = DriverManager.getConnection(connectionString, userName, password);
+    created.incrementAndGet();
+    return new PooledConnection(physical);
+  }
+
+  private void release(PooledConnection pooled, boolean broken) {
+    active.decrementAndGet();
+    if (broken) {
+      pooled.closePhysical();
+      evicted.incrementAndGet();
+    } else {
+      pooled.touch();
+      idle.offerFirst(pooled);
+    }
+    permits.release();
+  }
+
+  private void recordBorrow(long nanos) {
+    borrows.incrementAndGet();
+    borrowNanosTotal.addAndGet(nanos);
+    borrowNanosMax.accumulateAndGet(nanos, Math::max);
+  }
+
+  /** Closes connections idle for longer than the idle timeout and tops the pool up to its minimum size. */
+  private void maintain() {
+    long timeout = config.idleTimeout().toNanos();
+    Iterator<PooledConnection> it = idle.descendingIterator();
+    while (it.hasNext() && idle.size() + active.get() > config.minSize()) {
+      PooledConnection pooled = it.next();
+      if (pooled.idleNanos() > timeout && idle.remove(pooled)) {
+        pooled.closePhysical();
+        evicted.incrementAndGet();
+      }
+    }
+
+    while (idle.size() + active.get() < config.minSize() && permits.tryAcquire()) {
+      try {
+        idle.offerLast(open());
+      } catch (SQLException e) {
+        // Database not reachable yet, try again on the next run
+        break;
+      } finally {
+        permits.release();
+      }
+    }
+  }
+
+  private final class PooledConnection {
+    private final Connection physical;
+    private volatile long lastUsed = System.nanoTime();
+
+    private PooledConnection(Connection physical) {
+      this.physical = physical;
+    }
+
+    private long idleNanos() {
+      return System.nanoTime() - lastUsed;
+    }
+
+    private void touch() {
+      lastUsed = System.nanoTime();
+    }
+
+    private boolean isValid() {
+      try {
+        return physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+      } catch (SQLException e) {
+        return false;
+      }
+    }
+
+    private void closePhysical() {
+      try {
+        physical.close();
+      } catch (SQLException e) {
+        // Nothing left to do with a connection we are discarding
+      }
+    }
+
+    private Connection lease() {
+      return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+        new Class<?>[]{Connection.class}, new LeaseHandler(this));
+    }
+  }
+
+  private final class LeaseHandler implements InvocationHandler {
+    private final PooledConnection pooled;
+    private boolean returned;
+
+    private LeaseHandler(PooledConnection pooled) {
+      this.pooled = pooled;
+    }
+
+    @Override
+    public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close" -> {
+          if (!returned) {
+            returned = true;
+            release(pooled, !resetForReuse());
+          }
+          return null;
+        }
+        case "isClosed" -> {
+          return returned || pooled.physical.isClosed();
+        }
+        case "equals" -> {
+          return proxy == args[0];
+        }
+        case "hashCode" -> {
+          return System.identityHashCode(proxy);
+        }
+        default -> {
+          if (returned) {
+            throw new SQLException("Connection has already been returned to the pool");
+          }
+          try {
+            return method.invoke(pooled.physical, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+        }
+      }
+    }
+
+    /** Rolls back unfinished work and restores auto-commit; returns false if the connection is unusable. */
+    private boolean resetForReuse() {
+      try {
+        if (pooled.physical.isClosed()) return false;
+        if (!pooled.physical.getAutoCommit()) {
+          pooled.physical.rollback();
+          pooled.physical.setAutoCommit(true);
+        }
+        return true;
+      } catch (SQLException e) {
+        return false;
+      }
+    }
+  }
+}
@@ -2,128 +2,357 @@ package swe4.sos.db;
 
 import swe4.sos.gui.infrastructure.JoinKeyService;
 import swe4.sos.gui.infrastructure.Repository;
+import swe4.sos.gui.infrastructure.RepositoryCommand;
 import swe4.sos.gui.model.AppointmentSurvey;
+import swe4.sos.gui.model.SurveyChanges;
+import swe4.sos.gui.model.SurveyCursor;
 import swe4.sos.gui.model.SurveyOption;
+import swe4.sos.gui.model.SurveyPage;
+import swe4.sos.gui.model.SurveyPageRequest;
+import swe4.sos.gui.model.SurveySummary;
 import swe4.sos.gui.model.User;
+import swe4.sos.server.client.ChangeEvent;
 import swe4.sos.server.client.ClientCallback;
+import swe4.sos.server.server.NotificationDispatcher;
 
 import java.rmi.RemoteException;
 import java.sql.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class DBRepository implements Repository {
 
   // --- Singleton Implementation ---
   private static DBRepository instance;
 
-  private final List<ClientCallback> observers = new ArrayList<>();
-  private final String connectionString;
-  private final String userName;
-  private final String password;
+  private final NotificationDispatcher notificationDispatcher = new NotificationDispatcher();
+  private final ConnectionPool connectionPool;
+  private VersionClock versionClock; // initialized from the database on first use
+  private final SurveyCache surveyCache = new SurveyCache(1000, Duration.ofMinutes(1));
+  private final VoteIngestionQueue voteQueue;
+  private final ConflictMonitor conflictMonitor = new ConflictMonitor();
+  private final UserCache userCache = new UserCache(10_000, Duration.ofMinutes(10), 1_000, Duration.ofSeconds(30));
+  private final ThreadLocal<BatchTransaction> currentBatch = new ThreadLocal<>();
+  private final SqlProfiler sqlProfiler = new SqlProfiler(Duration.ofMillis(200), 10);
 
-  private DBRepository(String connectionString, String userName, String password) {
-    this.connectionString = connectionString;
-    this.userName = userName;
-    this.password = password;
+  private DBRepository(String connectionString, String userName, String password,
+                       ConnectionPool.Config poolConfig, VoteIngestionQueue.Config voteConfig) {
+    this.connectionPool = new ConnectionPool(withRequiredOptions(connectionString), userName, password, poolConfig);
+    this.voteQueue = new VoteIngestionQueue(voteConfig, (surveyId, commandsByUser) -> {
+      // Runs on the queue's own thread, outside of any repository call
+      SqlProfiler.Scope scope = sqlProfiler.scope("writeVoteBatch");
+      try {
+        writeVoteBatch(surveyId, commandsByUser);
+      } finally {
+        scope.close();
+      }
+    });
   }
 
   public static synchronized DBRepository getInstance(String connectionString, String userName, String password) {
+    return getInstance(connectionString, userName, password, ConnectionPool.Config.defaults());
+  }
+
+  public static synchronized DBRepository getInstance(String connectionString, String userName, String password,
+                                                      ConnectionPool.Config poolConfig) {
+    return getInstance(connectionString, userName, password, poolConfig, VoteIngestionQueue.Config.defaults());
+  }
+
+  public static synchronized DBRepository getInstance(String connectionString, String userName, String password,
+                                                      ConnectionPool.Config poolConfig,
+                                                      VoteIngestionQueue.Config voteConfig) {
     if (instance == null) {
-      instance = new DBRepository(connectionString, userName, password);
+      instance = new DBRepository(connectionString, userName, password, poolConfig, voteConfig);
     }
     return instance;
   }
 
+  // Join and decline are sent as multi-statement scripts, and ON DUPLICATE KEY results are
+  // read as affected rows (0 for an existing row) instead of MySQL's default found rows
+  private static String withRequiredOptions(String connectionString) {
+    StringBuilder url = new StringBuilder(connectionString);
+    for (String option : List.of("allowMultiQueries=true", "useAffectedRows=true")) {
+      if (!connectionString.contains(option.substring(0, option.indexOf('=')))) {
+        url.append(url.indexOf("?") < 0 ? '?' : '&').append(option);
+      }
+    }
+    return url.toString();
+  }
+
   public Connection getConnection() throws DataAccessException {
+    BatchTransaction batch = currentBatch.get();
+    if (batch != null) return batch.shared();
     try {
-      // Always return a new connection. The try-with-resources block will handle closing it.
-      return DriverManager.getConnection(connectionString, userName, password);
+      // Borrow from the pool. Closing the connection (try-with-resources) returns it to the pool.
+      return sqlProfiler.wrap(connectionPool.borrow());
     } catch (SQLException ex) {
       throw new DataAccessException("Can't establish connection to database. SQLException: "
         + ex.getMessage());
     }
   }
 
+  /** Applies pending schema migrations; call before anything else touches the database. */
+  public List<SchemaMigrator.Migration> migrateSchema() {
+    try (Connection conn = getConnection()) {
+      return SchemaMigrator.migrate(conn);
+    } catch (SQLException e) {
+      throw new DataAccessException("Error migrating the database schema: " + e.getMessage());
+    }
+  }
+
+  // Register it as the CallObserver of the instrumented repository to group statements by call
+  public SqlProfiler getSqlProfiler() {
+    return sqlProfiler;
+  }
+
+  public ConnectionPool.Statistics getPoolStatistics() {
+    return connectionPool.getStatistics();
+  }
+
+  public void shutdown() {
+    voteQueue.shutdown();
+    notificationDispatcher.shutdown();
+    connectionPool.shutdown();
+  }
+
   // --- Observer Pattern Implementation ---
 
   @Override
-  public synchronized void addObserver(ClientCallback observer) throws RemoteException {
-    if (!observers.contains(observer)) {
-      observers.add(observer);
-    }
+  public void addObserver(ClientCallback observer) throws RemoteException {
+    notificationDispatcher.addObserver(observer);
+  }
+
+  @Override
+  public void removeObserver(ClientCallback observer) throws RemoteException {
+    notificationDispatcher.removeObserver(observer);
   }
 
   @Override
-  public synchronized void removeObserver(ClientCallback observer) throws RemoteException {
-    observers.remove(observer);
+  public void addObserver(ClientCallback observer, int userId) throws RemoteException {
+    notificationDispatcher.addObserver(observer, userId);
+  }
+
+  // Every committed write ends here: drop the cached survey, then hand the event to the
+  // dispatcher, so writers never wait for slow clients
+  protected void notifyObservers(ChangeEvent.Type type, int surveyId, long version, Set<Integer> audience) {
+    BatchTransaction batch = currentBatch.get();
+    if (batch != null) {
+      // Only happened once the batch commits
+      batch.deferNotification(() -> notifyObservers(type, surveyId, version, audience));
+      return;
+    }
+    if (surveyId > 0) surveyCache.invalidate(surveyId);
+    notificationDispatcher.publish(type, surveyId, version, audience);
+  }
+
+  // A write's version may only become visible once its transaction has committed
+  private void endVersion(long version) {
+    BatchTransaction batch = currentBatch.get();
+    if (batch != null) batch.deferVersion(version);
+    else versionClock.end(version);
+  }
+
+  private boolean inBatch() {
+    return currentBatch.get() != null;
   }
 
-  protected synchronized void notifyObservers() {
-    // Create a copy to iterate over, avoiding ConcurrentModificationException
-    new ArrayList<>(observers).forEach(observer -> {
+  // --- Batched Commands ---
+
+  @Override
+  public List<Object> executeBatch(List<RepositoryCommand<?>> commands, boolean transactional) throws RemoteException {
+    if (!transactional || inBatch()) return executeCommands(commands);
+
+    BatchTransaction batch;
+    Connection conn = getConnection();
+    try {
+      conn.setAutoCommit(false);
+      batch = new BatchTransaction(conn);
+    } catch (SQLException e) {
+      closeQuietly(conn);
+      throw new DataAccessException("Error starting batch transaction: " + e.getMessage());
+    }
+
+    boolean committed = false;
+    currentBatch.set(batch);
+    try {
+      List<Object> results = executeCommands(commands);
+      conn.commit();
+      committed = true;
+      return results;
+    } catch (SQLException e) {
+      throw new DataAccessException("Error committing batch: " + e.getMessage());
+    } finally {
+      currentBatch.remove();
       try {
-        observer.notifyChange();
-      } catch (RemoteException e) {
-        // Remove stale observers (e.g., disconnected clients)
-        System.err.println("Removing stale observer: " + e.getMessage());
-        observers.remove(observer);
+        if (!committed) conn.rollback();
+        conn.setAutoCommit(true);
+      } catch (SQLException e) {
+        e.printStackTrace();
       }
-    });
+      closeQuietly(conn);
+      batch.versions().forEach(version -> versionClock.end(version));
+      if (committed) batch.notifications().forEach(Runnable::run);
+    }
+  }
+
+  private List<Object> executeCommands(List<RepositoryCommand<?>> commands) throws RemoteException {
+    List<Object> results = new ArrayList<>(commands.size());
+    for (RepositoryCommand<?> command : commands) {
+      results.add(command.execute(this));
+    }
+    return results;
+  }
+
+  private static void closeQuietly(Connection conn) {
+    try {
+      conn.close();
+    } catch (SQLException e) {
+      e.printStackTrace();
+    }
+  }
+
+  public SurveyCache.Statistics getSurveyCacheStatistics() {
+    return surveyCache.getStatistics();
+  }
+
+  public NotificationDispatcher.Statistics getNotificationStatistics() {
+    return notificationDispatcher.getStatistics();
+  }
+
+  public VoteIngestionQueue.Statistics getVoteQueueStatistics() {
+    return voteQueue.getStatistics();
+  }
+
+  public ConflictMonitor.Statistics getConflictStatistics() {
+    return conflictMonitor.getStatistics();
+  }
+
+  public UserCache.Statistics getUserCacheStatistics() {
+    return userCache.getStatistics();
+  }
+
+  // --- Statements on the hot read paths, also checked by checkQueryPlans() ---
+
+  private static final String USER_BY_USERNAME_SQL = "SELECT id, username, email, password FROM user WHERE username = ?";
+  private static final String PARTICIPATED_IDS_SQL = "SELECT DISTINCT id FROM survey s " +
+    "LEFT JOIN participation p ON s.id = p.survey_id " +
+    "WHERE s.created_by = ? OR p.user_id = ?";
+  private static final String INVITED_IDS_SQL = "SELECT survey_id FROM invitation " +
+    "WHERE user_id = ? AND survey_id NOT IN (SELECT survey_id FROM participation WHERE user_id = ?)";
+  private static final String CHANGED_SURVEYS_SQL = "SELECT s.id FROM survey s WHERE s.version > ? AND (s.created_by = ? " +
+    "OR EXISTS (SELECT 1 FROM participation p WHERE p.survey_id = s.id AND p.user_id = ?) " +
+    "OR EXISTS (SELECT 1 FROM invitation i WHERE i.survey_id = s.id AND i.user_id = ?))";
+  private static final String REMOVED_SURVEYS_SQL = "SELECT survey_id FROM survey_removal WHERE user_id = ? AND version > ?";
+  private static final String OPTION_TALLIES_SQL = "SELECT id, timeOption, vote_count, preferred_count " +
+    "FROM survey_option WHERE survey_id = ? ORDER BY vote_count DESC, preferred_count DESC, timeOption";
+  private static final String AUDIENCE_SQL = "SELECT created_by AS user_id FROM survey WHERE id = ? " +
+    "UNION SELECT user_id FROM participation WHERE survey_id = ? " +
+    "UNION SELECT user_id FROM invitation WHERE survey_id = ?";
+  // %s is replaced by the placeholders of the id list
+  private static final String SURVEY_ROWS_SQL = "SELECT * FROM survey WHERE id IN (%s)";
+  private static final String PARTICIPANTS_SQL = "SELECT survey_id, user_id FROM participation WHERE survey_id IN (%s)";
+  private static final String INVITATIONS_SQL = "SELECT survey_id, user_id FROM invitation WHERE survey_id IN (%s)";
+  private static final String OPTIONS_AND_VOTES_SQL = "SELECT so.id, so.survey_id, so.timeOption, v.user_id, v.is_preferred " +
+    "FROM survey_option so LEFT JOIN vote v ON v.survey_option_id = so.id WHERE so.survey_id IN (%s)";
+
+  /**
+   * Runs EXPLAIN on the hot read statements with sample parameters and reports every full table
+   * scan on a table estimated to hold at least minRows rows. Small tables are always scanned,
+   * so meaningful results need a database of realistic size.
+   */
+  public List<QueryPlanChecker.Finding> checkQueryPlans(long minRows) {
+    String oneId = placeholders(1);
+    List<QueryPlanChecker.Query> queries = List.of(
+      new QueryPlanChecker.Query("user by username", USER_BY_USERNAME_SQL, List.of("admin")),
+      new QueryPlanChecker.Query("participated surveys", PARTICIPATED_IDS_SQL, List.of(1, 1)),
+      new QueryPlanChecker.Query("invited surveys", INVITED_IDS_SQL, List.of(1, 1)),
+      new QueryPlanChecker.Query("changed surveys", CHANGED_SURVEYS_SQL, List.of(0L, 1, 1, 1)),
+      new QueryPlanChecker.Query("removed surveys", REMOVED_SURVEYS_SQL, List.of(1, 0L)),
+      new QueryPlanChecker.Query("option tallies", OPTION_TALLIES_SQL, List.of(1)),
+      new QueryPlanChecker.Query("survey audience", AUDIENCE_SQL, List.of(1, 1, 1)),
+      new QueryPlanChecker.Query("survey rows", SURVEY_ROWS_SQL.formatted(oneId), List.of(1)),
+      new QueryPlanChecker.Query("survey participants", PARTICIPANTS_SQL.formatted(oneId), List.of(1)),
+      new QueryPlanChecker.Query("survey invitations", INVITATIONS_SQL.formatted(oneId), List.of(1)),
+      new QueryPlanChecker.Query("options and votes", OPTIONS_AND_VOTES_SQL.formatted(oneId), List.of(1))
+    );
+    try (Connection conn = getConnection()) {
+      return QueryPlanChecker.check(conn, queries, minRows);
+    } catch (SQLException e) {
+      throw new DataAccessException("Error checking query plans: " + e.getMessage());
+    }
   }
 
   // --- User Management Implementation (Updated for Email) ---
 
   @Override
   public User getUser(int id) throws RemoteException {
-    String sql = "SELECT id, username, email, password FROM user WHERE id = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setInt(1, id);
-      try (ResultSet rs = pstmt.executeQuery()) {
-        if (rs.next()) {
-          return new User(rs.getInt("id"), rs.getString("username"), rs.getString("email"), rs.getString("password"));
-        }
-      }
-    } catch (SQLException e) {
-      throw new DataAccessException("Error fetching user by ID: " + e.getMessage());
-    }
-    return null;
+    if (inBatch()) return queryUser("SELECT id, username, email, password FROM user WHERE id = ?", id,
+      "Error fetching user by ID: ");
+    UserCache.Lookup cached = userCache.getById(id);
+    if (cached.cached()) return cached.user();
+
+    long generation = userCache.beginLoad();
+    User user = queryUser("SELECT id, username, email, password FROM user WHERE id = ?", id,
+      "Error fetching user by ID: ");
+    userCache.put(user, generation);
+    return user;
   }
 
   @Override
   public User getUserByUsername(String username) throws RemoteException {
-    String sql = "SELECT id, username, email, password FROM user WHERE username = ?";
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setString(1, username);
-      try (ResultSet rs = pstmt.executeQuery()) {
-        if (rs.next()) {
-          return new User(rs.getInt("id"), rs.getString("username"), rs.getString("email"), rs.getString("password"));
-        }
-      }
-    } catch (SQLException e) {
-      throw new DataAccessException("Error fetching user by username: " + e.getMessage());
-    }
-    return null;
+    if (inBatch()) return queryUser(USER_BY_USERNAME_SQL, username, "Error fetching user by username: ");
+    UserCache.Lookup cached = userCache.getByUsername(username);
+    if (cached.cached()) return cached.user();
+
+    long generation = userCache.beginLoad();
+    User user = queryUser(USER_BY_USERNAME_SQL, username, "Error fetching user by username: ");
+    if (user != null) userCache.put(user, generation);
+    else userCache.putMissingUsername(username, generation);
+    return user;
   }
 
   @Override
   public User getUserByEmail(String email) throws RemoteException {
-    String sql = "SELECT id, username, email, password FROM user WHERE email = ?";
+    if (inBatch()) return queryUser("SELECT id, username, email, password FROM user WHERE email = ?", email,
+      "Error fetching user by email: ");
+    UserCache.Lookup cached = userCache.getByEmail(email);
+    if (cached.cached()) return cached.user();
+
+    long generation = userCache.beginLoad();
+    User user = queryUser("SELECT id, username, email, password FROM user WHERE email = ?", email,
+      "Error fetching user by email: ");
+    if (user != null) userCache.put(user, generation);
+    else userCache.putMissingEmail(email, generation);
+    return user;
+  }
+
+  @Override
+  public User authenticate(String username, String password) throws RemoteException {
+    User user = getUserByUsername(username);
+    return user != null && user.getPassword().equals(password) ? user : null;
+  }
+
+  private User queryUser(String sql, Object key, String errorMessage) {
     try (Connection conn = getConnection();
          PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setString(1, email);
+      pstmt.setObject(1, key);
       try (ResultSet rs = pstmt.executeQuery()) {
         if (rs.next()) {
           return new User(rs.getInt("id"), rs.getString("username"), rs.getString("email"), rs.getString("password"));
         }
       }
     } catch (SQLException e) {
-      throw new DataAccessException("Error fetching user by email: " + e.getMessage());
+      throw new DataAccessException(errorMessage + e.getMessage());
     }
     return null;
   }
@@ -137,10 +366,11 @@ public class DBRepository implements Repository {
       pstmt.setString(2, email);
       pstmt.setString(3, password);
       pstmt.executeUpdate();
-      notifyObservers();
+      userCache.invalidate(username, email);
     } catch (SQLException e) {
       throw new DataAccessException("Error adding user: " + e.getMessage());
     }
+    notifyObservers(ChangeEvent.Type.USER_ADDED, -1, versionClock().current(), Set.of());
   }
 
   // --- Survey Management Implementation ---
@@ -152,11 +382,12 @@ public class DBRepository implements Repository {
 
   @Override
   public void addSurvey(int userId, String label, String description, List<SurveyOption> options) throws RemoteException {
-    String surveySql = "INSERT INTO survey (created_by, label, description, created_at, joinkey, open) VALUES (?, ?, ?, ?, ?, ?)";
+    String surveySql = "INSERT INTO survey (created_by, label, description, created_at, joinkey, open, version) VALUES (?, ?, ?, ?, ?, ?, ?)";
     String participationSql = "INSERT INTO participation (user_id, survey_id) VALUES (?, ?)";
     String insertOptionSql = "INSERT INTO survey_option (timeOption, survey_id) VALUES (?, ?)";
 
     Connection conn = null;
+    long version = versionClock().begin();
     try {
       conn = getConnection();
       conn.setAutoCommit(false); // Start transaction
@@ -170,6 +401,7 @@ public class DBRepository implements Repository {
         surveyPstmt.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
         surveyPstmt.setString(5, JoinKeyService.generateJoinKey());
         surveyPstmt.setBoolean(6, true);
+        surveyPstmt.setLong(7, version);
         surveyPstmt.executeUpdate();
 
         try (ResultSet generatedKeys = surveyPstmt.getGeneratedKeys()) {
@@ -201,7 +433,7 @@ public class DBRepository implements Repository {
       }
 
       conn.commit(); // Commit all changes at once
-      notifyObservers();
+      notifyObservers(ChangeEvent.Type.SURVEY_CREATED, surveyId, version, Set.of(userId));
 
     } catch (SQLException e) {
       try {
@@ -211,6 +443,7 @@ public class DBRepository implements Repository {
       }
       throw new DataAccessException("Error adding survey with options: " + e.getMessage());
     } finally {
+      endVersion(version);
       try {
         if (conn != null) {
           conn.setAutoCommit(true);
@@ -225,256 +458,211 @@ public class DBRepository implements Repository {
 
   @Override
   public AppointmentSurvey getSurvey(int surveyId) throws RemoteException {
-    String surveySql = "SELECT * FROM survey WHERE id = ?";
-    AppointmentSurvey survey = null;
-
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(surveySql)) {
-      pstmt.setInt(1, surveyId);
-      try (ResultSet rs = pstmt.executeQuery()) {
-        if (rs.next()) {
-          survey = new AppointmentSurvey(
-            rs.getInt("id"),
-            rs.getInt("created_by"),
-            rs.getString("label"),
-            rs.getString("description"),
-            rs.getTimestamp("created_at").toLocalDateTime(),
-            rs.getString("joinkey")
-          );
-          if (!rs.getBoolean("open")) {
-            survey.close();
-          }
-        } else {
-          return null; // Survey not found
-        }
-      }
+    boolean cacheable = !inBatch(); // a batch may see its own uncommitted writes
+    AppointmentSurvey cached = cacheable ? surveyCache.get(surveyId) : null;
+    if (cached != null) return cached;
 
-      loadSurveyParticipants(conn, survey);
-      loadSurveyInvitations(conn, survey);
-      loadSurveyOptionsAndVotes(conn, survey);
+    long generation = cacheable ? surveyCache.beginLoad(surveyId) : 0;
+    AppointmentSurvey survey = null;
+    try (Connection conn = getConnection()) {
+      List<AppointmentSurvey> surveys = loadSurveys(conn, List.of(surveyId));
+      if (surveys.isEmpty()) return null; // Survey not found
 
+      survey = surveys.getFirst();
+      return survey;
     } catch (SQLException e) {
       throw new DataAccessException("Error getting survey: " + e.getMessage());
+    } finally {
+      if (cacheable) surveyCache.endLoad(surveyId, survey, generation);
     }
-    return survey;
   }
 
   @Override
   public List<AppointmentSurvey> getParticipatedSurveys(int userId) throws RemoteException {
-    String sql = "SELECT DISTINCT id FROM survey s " +
-      "LEFT JOIN participation p ON s.id = p.survey_id " +
-      "WHERE s.created_by = ? OR p.user_id = ?";
-    List<AppointmentSurvey> surveys = new ArrayList<>();
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setInt(1, userId);
-      pstmt.setInt(2, userId);
-      try (ResultSet rs = pstmt.executeQuery()) {
-        while (rs.next()) {
-          surveys.add(getSurvey(rs.getInt("id")));
+    String sql = PARTICIPATED_IDS_SQL;
+    try (Connection conn = getConnection()) {
+      List<Integer> surveyIds = new ArrayList<>();
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setInt(1, userId);
+        pstmt.setInt(2, userId);
+        try (ResultSet rs = pstmt.executeQuery()) {
+          while (rs.next()) {
+            surveyIds.add(rs.getInt("id"));
+          }
         }
       }
+      return loadSurveys(conn, surveyIds);
     } catch (SQLException e) {
       throw new DataAccessException("Error getting participated surveys: " + e.getMessage());
     }
-    return surveys;
   }
 
   @Override
   public List<AppointmentSurvey> getInvitedSurveys(int userId) throws RemoteException {
-    String sql = "SELECT survey_id FROM invitation " +
-      "WHERE user_id = ? AND survey_id NOT IN (SELECT survey_id FROM participation WHERE user_id = ?)";
-    List<AppointmentSurvey> surveys = new ArrayList<>();
-    try (Connection conn = getConnection();
-         PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setInt(1, userId);
-      pstmt.setInt(2, userId);
-      try (ResultSet rs = pstmt.executeQuery()) {
-        while (rs.next()) {
-          surveys.add(getSurvey(rs.getInt("survey_id")));
+    String sql = INVITED_IDS_SQL;
+    try (Connection conn = getConnection()) {
+      List<Integer> surveyIds = new ArrayList<>();
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setInt(1, userId);
+        pstmt.setInt(2, userId);
+        try (ResultSet rs = pstmt.executeQuery()) {
+          while (rs.next()) {
+            surveyIds.add(rs.getInt("survey_id"));
+          }
         }
       }
+      return loadSurveys(conn, surveyIds);
     } catch (SQLException e) {
       throw new DataAccessException("Error getting invited surveys: " + e.getMessage());
     }
-    return surveys;
   }
 
   @Override
-  public void removeSurvey(int surveyId) throws RemoteException {
-    String sql = "DELETE FROM survey WHERE id = ?";
+  public SurveyPage getParticipatedSurveys(int userId, SurveyPageRequest request) throws RemoteException {
+    // Each branch can stop early on its index; the union then only merges two short, sorted lists
+    String sql = "(SELECT id, created_at FROM survey WHERE created_by = ?" + pageFilter(request) + pageOrder(request) + ") " +
+      "UNION (SELECT s.id, s.created_at FROM participation p JOIN survey s ON s.id = p.survey_id " +
+      "WHERE p.user_id = ?" + pageFilter(request) + pageOrder(request) + ")" + pageOrder(request);
     try (Connection conn = getConnection();
          PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setInt(1, surveyId);
-      int affectedRows = pstmt.executeUpdate();
-      if (affectedRows > 0) {
-        notifyObservers();
-      }
+      pstmt.setInt(1, userId);
+      int index = bindPage(pstmt, 2, request);
+      pstmt.setInt(index, userId);
+      index = bindPage(pstmt, index + 1, request);
+      pstmt.setInt(index, request.pageSize() + 1);
+      return loadPage(conn, pstmt, request);
     } catch (SQLException e) {
-      throw new DataAccessException("Error removing survey: " + e.getMessage());
+      throw new DataAccessException("Error getting participated surveys: " + e.getMessage());
     }
   }
 
   @Override
-  public boolean participateInSurvey(String keyJoin, int userId) throws RemoteException {
-    String surveyIdSql = "SELECT id FROM survey WHERE joinkey = ?";
-    String checkParticipationSql = "SELECT COUNT(*) FROM participation WHERE user_id = ? AND survey_id = ?";
-    String insertParticipationSql = "INSERT INTO participation (user_id, survey_id) VALUES (?, ?)";
-    String deleteInvitationSql = "DELETE FROM invitation WHERE user_id = ? AND survey_id = ?";
-
-    try (Connection conn = getConnection()) {
-      int surveyId;
-      try (PreparedStatement pstmt = conn.prepareStatement(surveyIdSql)) {
-        pstmt.setString(1, keyJoin);
-        try (ResultSet rs = pstmt.executeQuery()) {
-          if (rs.next()) {
-            surveyId = rs.getInt("id");
-          } else {
-            return false;
-          }
-        }
-      }
-
-      try (PreparedStatement pstmt = conn.prepareStatement(checkParticipationSql)) {
-        pstmt.setInt(1, userId);
-        pstmt.setInt(2, surveyId);
-        try (ResultSet rs = pstmt.executeQuery()) {
-          if (rs.next() && rs.getInt(1) > 0) {
-            return false;
-          }
-        }
-      }
-
-      try (PreparedStatement pstmt = conn.prepareStatement(insertParticipationSql)) {
-        pstmt.setInt(1, userId);
-        pstmt.setInt(2, surveyId);
-        pstmt.executeUpdate();
-      }
+  public SurveyPage getInvitedSurveys(int userId, SurveyPageRequest request) throws RemoteException {
+    String sql = "SELECT s.id, s.created_at FROM invitation i JOIN survey s ON s.id = i.survey_id " +
+      "WHERE i.user_id = ? AND NOT EXISTS " +
+      "(SELECT 1 FROM participation p WHERE p.user_id = i.user_id AND p.survey_id = i.survey_id)" +
+      pageFilter(request) + pageOrder(request);
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      pstmt.setInt(1, userId);
+      bindPage(pstmt, 2, request);
+      return loadPage(conn, pstmt, request);
+    } catch (SQLException e) {
+      throw new DataAccessException("Error getting invited surveys: " + e.getMessage());
+    }
+  }
 
-      try (PreparedStatement pstmt = conn.prepareStatement(deleteInvitationSql)) {
-        pstmt.setInt(1, userId);
-        pstmt.setInt(2, surveyId);
-        pstmt.executeUpdate();
-      }
+  // Status filter and keyset condition; unqualified columns so it fits every survey listing query
+  private static String pageFilter(SurveyPageRequest request) {
+    StringBuilder sql = new StringBuilder();
+    if (request.status() != SurveyPageRequest.Status.ALL) {
+      sql.append(" AND open = ?");
+    }
+    if (request.after() != null) {
+      String op = request.sort() == SurveyPageRequest.Sort.NEWEST_FIRST ? "<" : ">";
+      sql.append(" AND (created_at ").append(op).append(" ? OR (created_at = ? AND id ").append(op).append(" ?))");
+    }
+    return sql.toString();
+  }
 
-      notifyObservers();
-      return true;
+  private static String pageOrder(SurveyPageRequest request) {
+    String direction = request.sort() == SurveyPageRequest.Sort.NEWEST_FIRST ? "DESC" : "ASC";
+    return " ORDER BY created_at " + direction + ", id " + direction + " LIMIT ?";
+  }
 
-    } catch (SQLException e) {
-      throw new DataAccessException("Error participating in survey: " + e.getMessage());
+  // Binds the parameters of pageFilter() and pageOrder() starting at index; returns the next index
+  private static int bindPage(PreparedStatement pstmt, int index, SurveyPageRequest request) throws SQLException {
+    if (request.status() != SurveyPageRequest.Status.ALL) {
+      pstmt.setBoolean(index++, request.status() == SurveyPageRequest.Status.OPEN);
+    }
+    if (request.after() != null) {
+      Timestamp createdAt = Timestamp.valueOf(request.after().createdAt());
+      pstmt.setTimestamp(index++, createdAt);
+      pstmt.setTimestamp(index++, createdAt);
+      pstmt.setInt(index++, request.after().id());
     }
+    pstmt.setInt(index++, request.pageSize() + 1);
+    return index;
   }
 
-  @Override
-  public boolean declineSurvey(String keyJoin, int userId) throws RemoteException {
-    String surveyIdSql = "SELECT id FROM survey WHERE joinkey = ?";
-    String deleteInvitationSql = "DELETE FROM invitation WHERE user_id = ? AND survey_id = ?";
-
-    try (Connection conn = getConnection()) {
-      int surveyId;
-      try (PreparedStatement pstmt = conn.prepareStatement(surveyIdSql)) {
-        pstmt.setString(1, keyJoin);
-        try (ResultSet rs = pstmt.executeQuery()) {
-          if (rs.next()) {
-            surveyId = rs.getInt("id");
-          } else {
-            return false;
-          }
+  // Reads one more id than requested to find out whether there is a next page
+  private SurveyPage loadPage(Connection conn, PreparedStatement pstmt, SurveyPageRequest request) throws SQLException {
+    List<Integer> surveyIds = new ArrayList<>();
+    SurveyCursor nextCursor = null;
+    try (ResultSet rs = pstmt.executeQuery()) {
+      LocalDateTime lastCreatedAt = null;
+      while (rs.next()) {
+        if (surveyIds.size() == request.pageSize()) {
+          nextCursor = new SurveyCursor(lastCreatedAt, surveyIds.getLast());
+          break;
         }
+        surveyIds.add(rs.getInt("id"));
+        lastCreatedAt = rs.getTimestamp("created_at").toLocalDateTime();
       }
+    }
+    return new SurveyPage(loadSurveys(conn, surveyIds), nextCursor);
+  }
 
-      try(PreparedStatement pstmt = conn.prepareStatement(deleteInvitationSql)) {
-        pstmt.setInt(1, userId);
-        pstmt.setInt(2, surveyId);
-        int affectedRows = pstmt.executeUpdate();
-        if(affectedRows > 0) {
-          notifyObservers();
-          return true;
+  @Override
+  public List<SurveyOption> getOptionTallies(int surveyId) throws RemoteException {
+    String sql = OPTION_TALLIES_SQL;
+    List<SurveyOption> options = new ArrayList<>();
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      pstmt.setInt(1, surveyId);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          options.add(SurveyOption.withTallies(rs.getInt("id"), rs.getTimestamp("timeOption").toLocalDateTime(),
+            rs.getInt("vote_count"), rs.getInt("preferred_count")));
         }
       }
     } catch (SQLException e) {
-      throw new DataAccessException("Error declining survey: " + e.getMessage());
+      throw new DataAccessException("Error getting option tallies: " + e.getMessage());
     }
-    return false;
+    return options;
   }
 
-  @Override
-  public void updateSurvey(AppointmentSurvey currentSurvey) throws RemoteException {
-    String updateSurveySql = "UPDATE survey SET label = ?, description = ?, open = ? WHERE id = ?";
+  // Tallies recounted from the vote table, joined to survey_option as t
+  private static final String RECOUNT_SQL = "LEFT JOIN (SELECT survey_option_id, COUNT(*) AS votes, " +
+    "SUM(is_preferred = 1) AS preferred_votes FROM vote GROUP BY survey_option_id) t ON t.survey_option_id = so.id ";
+
+  /**
+   * Compares the stored vote tallies with the vote table and returns the ids of the options that
+   * have drifted (e.g. through deletes outside this repository). With repair, those tallies are
+   * recounted in the same transaction.
+   */
+  public Set<Integer> verifyTallies(boolean repair) {
+    String findSql = "SELECT so.id FROM survey_option so " + RECOUNT_SQL +
+      "WHERE so.vote_count <> COALESCE(t.votes, 0) OR so.preferred_count <> COALESCE(t.preferred_votes, 0) " +
+      "FOR UPDATE";
+    String repairSql = "UPDATE survey_option so " + RECOUNT_SQL +
+      "SET so.vote_count = COALESCE(t.votes, 0), so.preferred_count = COALESCE(t.preferred_votes, 0) " +
+      "WHERE so.id IN (";
 
     Connection conn = null;
     try {
       conn = getConnection();
       conn.setAutoCommit(false);
 
-      // 1. Update basic survey details
-      try (PreparedStatement pstmt = conn.prepareStatement(updateSurveySql)) {
-        pstmt.setString(1, currentSurvey.getLabel());
-        pstmt.setString(2, currentSurvey.getDescription());
-        pstmt.setBoolean(3, currentSurvey.isOpen());
-        pstmt.setInt(4, currentSurvey.getId());
-        pstmt.executeUpdate();
-      }
-
-      // 2. Sync invitations
-      try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM invitation WHERE survey_id = ?")) {
-        pstmt.setInt(1, currentSurvey.getId());
-        pstmt.executeUpdate();
-      }
-      try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO invitation (user_id, survey_id) VALUES (?, ?)")) {
-        for (Integer userId : currentSurvey.getInvitedUserIds()) {
-          pstmt.setInt(1, userId);
-          pstmt.setInt(2, currentSurvey.getId());
-          pstmt.addBatch();
+      List<Integer> drifted = new ArrayList<>();
+      try (PreparedStatement pstmt = conn.prepareStatement(findSql);
+           ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          drifted.add(rs.getInt("id"));
         }
-        pstmt.executeBatch();
       }
 
-      // 3. Sync options and votes (delete then re-insert)
-      try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM vote WHERE survey_option_id IN (SELECT id FROM survey_option WHERE survey_id = ?)")) {
-        pstmt.setInt(1, currentSurvey.getId());
-        pstmt.executeUpdate();
-      }
-      try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM survey_option WHERE survey_id = ?")) {
-        pstmt.setInt(1, currentSurvey.getId());
-        pstmt.executeUpdate();
-      }
-
-      String insertOptionSql = "INSERT INTO survey_option (timeOption, survey_id) VALUES (?, ?)";
-      String insertVoteSql = "INSERT INTO vote (user_id, survey_option_id, is_preferred) VALUES (?, ?, ?)";
-
-      for (SurveyOption option : currentSurvey.getOptions()) {
-        int newOptionId;
-        try (PreparedStatement optionPstmt = conn.prepareStatement(insertOptionSql, Statement.RETURN_GENERATED_KEYS)) {
-          optionPstmt.setTimestamp(1, Timestamp.valueOf(option.getTimeOption()));
-          optionPstmt.setInt(2, currentSurvey.getId());
-          optionPstmt.executeUpdate();
-          try (ResultSet rs = optionPstmt.getGeneratedKeys()) {
-            if (rs.next()) {
-              newOptionId = rs.getInt(1);
-            } else {
-              throw new SQLException("Failed to create survey option.");
-            }
-          }
-        }
-
-        if (!option.getVotedUserIds().isEmpty()) {
-          try (PreparedStatement votePstmt = conn.prepareStatement(insertVoteSql)) {
-            for (Integer voterId : option.getVotedUserIds()) {
-              votePstmt.setInt(1, voterId);
-              votePstmt.setInt(2, newOptionId);
-              // Check if this voter also preferred the option
-              boolean isPreferred = option.hasPreferred(voterId);
-              votePstmt.setBoolean(3, isPreferred);
-              votePstmt.addBatch();
-            }
-            votePstmt.executeBatch();
+      if (repair) {
+        for (int from = 0; from < drifted.size(); from += MAX_IN_LIST_SIZE) {
+          List<Integer> chunk = drifted.subList(from, Math.min(drifted.size(), from + MAX_IN_LIST_SIZE));
+          try (PreparedStatement pstmt = conn.prepareStatement(repairSql + placeholders(chunk.size()) + ")")) {
+            bindIds(pstmt, chunk);
+            pstmt.executeUpdate();
           }
         }
       }
-
       conn.commit();
-      notifyObservers();
+      return new HashSet<>(drifted);
 
     } catch (SQLException e) {
       try {
@@ -482,72 +670,921 @@ public class DBRepository implements Repository {
       } catch (SQLException ex) {
         throw new DataAccessException("Error rolling back transaction: " + ex.getMessage());
       }
-      throw new DataAccessException("Error updating survey: " + e.getMessage());
+      throw new DataAccessException("Error verifying vote tallies: " + e.getMessage());
     } finally {
       try {
-        if (conn != null) conn.setAutoCommit(true);
-      } catch (SQLException e) { /* log error */ }
+        if (conn != null) {
+          conn.setAutoCommit(true);
+          conn.close();
+        }
+      } catch (SQLException e) {
+        e.printStackTrace();
+      }
     }
   }
 
-  // --- Helper methods for populating survey objects ---
+  // Participant count as in AppointmentSurvey: everyone in participation, plus the creator if missing there
+  private static final String SUMMARY_COLUMNS = "s.id, s.created_by, s.label, s.description, s.created_at, " +
+    "s.joinkey, s.open, s.version, COUNT(pc.user_id) + " +
+    "CASE WHEN SUM(pc.user_id = s.created_by) > 0 THEN 0 ELSE 1 END AS participant_count";
 
-  private void loadSurveyParticipants(Connection conn, AppointmentSurvey survey) throws SQLException {
-    String sql = "SELECT user_id FROM participation WHERE survey_id = ?";
-    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-      pstmt.setInt(1, survey.getId());
-      try (ResultSet rs = pstmt.executeQuery()) {
-        while (rs.next()) {
-          survey.getParticipantUserIds().add(rs.getInt("user_id"));
-        }
-      }
-    }
+  @Override
+  public List<SurveySummary> getParticipatedSurveySummaries(int userId) throws RemoteException {
+    String sql = "SELECT " + SUMMARY_COLUMNS + " FROM survey s " +
+      "LEFT JOIN participation pc ON pc.survey_id = s.id " +
+      "WHERE s.created_by = ? OR s.id IN (SELECT survey_id FROM participation WHERE user_id = ?) " +
+      "GROUP BY s.id";
+    return querySummaries(sql, userId, "Error getting participated survey summaries: ");
   }
 
-  private void loadSurveyInvitations(Connection conn, AppointmentSurvey survey) throws SQLException {
-    String sql = "SELECT user_id FROM invitation WHERE survey_id = ?";
-    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+  @Override
+  public List<SurveySummary> getInvitedSurveySummaries(int userId) throws RemoteException {
+    String sql = "SELECT " + SUMMARY_COLUMNS + " FROM survey s " +
+      "LEFT JOIN participation pc ON pc.survey_id = s.id " +
+      "WHERE s.id IN (SELECT survey_id FROM invitation WHERE user_id = ?) " +
+      "AND s.id NOT IN (SELECT survey_id FROM participation WHERE user_id = ?) " +
+      "GROUP BY s.id";
+    return querySummaries(sql, userId, "Error getting invited survey summaries: ");
+  }
+
+  private List<SurveySummary> querySummaries(String sql, int userId, String errorMessage) {
+    List<SurveySummary> summaries = new ArrayList<>();
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      pstmt.setInt(1, userId);
+      pstmt.setInt(2, userId);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          summaries.add(new SurveySummary(
+            rs.getInt("id"),
+            rs.getInt("created_by"),
+            rs.getString("label"),
+            rs.getString("description"),
+            rs.getTimestamp("created_at").toLocalDateTime(),
+            rs.getString("joinkey"),
+            rs.getBoolean("open"),
+            rs.getInt("participant_count"),
+            rs.getLong("version")
+          ));
+        }
+      }
+    } catch (SQLException e) {
+      throw new DataAccessException(errorMessage + e.getMessage());
+    }
+    return summaries;
+  }
+
+  @Override
+  public long getCurrentVersion() throws RemoteException {
+    return versionClock().safeVersion();
+  }
+
+  @Override
+  public SurveyChanges getChangesSince(int userId, long sinceVersion) throws RemoteException {
+    String changedSql = CHANGED_SURVEYS_SQL;
+    String removedSql = REMOVED_SURVEYS_SQL;
+
+    // Read before querying: everything up to this version is committed and will be seen below
+    long version = versionClock().safeVersion();
+    try (Connection conn = getConnection()) {
+      List<Integer> changedIds = new ArrayList<>();
+      try (PreparedStatement pstmt = conn.prepareStatement(changedSql)) {
+        pstmt.setLong(1, sinceVersion > 0 ? sinceVersion : -1); // 0 also includes rows never changed (version 0)
+        pstmt.setInt(2, userId);
+        pstmt.setInt(3, userId);
+        pstmt.setInt(4, userId);
+        try (ResultSet rs = pstmt.executeQuery()) {
+          while (rs.next()) {
+            changedIds.add(rs.getInt("id"));
+          }
+        }
+      }
+
+      Set<Integer> removedIds = new HashSet<>();
+      if (sinceVersion > 0) {
+        try (PreparedStatement pstmt = conn.prepareStatement(removedSql)) {
+          pstmt.setInt(1, userId);
+          pstmt.setLong(2, sinceVersion);
+          try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+              removedIds.add(rs.getInt("survey_id"));
+            }
+          }
+        }
+        // Surveys the user regained access to after losing it are upserts, not removals
+        changedIds.forEach(removedIds::remove);
+      }
+
+      return new SurveyChanges(version, loadSurveys(conn, changedIds), removedIds);
+    } catch (SQLException e) {
+      throw new DataAccessException("Error getting survey changes: " + e.getMessage());
+    }
+  }
+
+  @Override
+  public void removeSurvey(int surveyId) throws RemoteException {
+    String sql = "DELETE FROM survey WHERE id = ?";
+
+    Connection conn = null;
+    long version = versionClock().begin();
+    try {
+      conn = getConnection();
+      conn.setAutoCommit(false);
+
+      // Must be read before the rows are gone; the removal records tell syncing clients to drop the survey
+      Set<Integer> audience = loadAudience(conn, surveyId);
+      recordRemovals(conn, surveyId, audience, version);
+
+      int affectedRows;
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setInt(1, surveyId);
+        affectedRows = pstmt.executeUpdate();
+      }
+
+      conn.commit();
+      if (affectedRows > 0) {
+        notifyObservers(ChangeEvent.Type.SURVEY_DELETED, surveyId, version, audience);
+        conflictMonitor.forget(surveyId);
+      }
+
+    } catch (SQLException e) {
+      try {
+        if (conn != null) conn.rollback();
+      } catch (SQLException ex) {
+        throw new DataAccessException("Error rolling back transaction: " + ex.getMessage());
+      }
+      throw new DataAccessException("Error removing survey: " + e.getMessage());
+    } finally {
+      endVersion(version);
+      try {
+        if (conn != null) {
+          conn.setAutoCommit(true);
+          conn.close();
+        }
+      } catch (SQLException e) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  // Audience of the survey with the given join key, as rows of (survey_id, user_id), if @sos_changed is set
+  private static final String AUDIENCE_BY_JOINKEY_SQL =
+    "SELECT s.id AS survey_id, s.created_by AS user_id FROM survey s WHERE s.joinkey = ? AND @sos_changed > 0 " +
+    "UNION SELECT s.id, p.user_id FROM survey s JOIN participation p ON p.survey_id = s.id " +
+    "WHERE s.joinkey = ? AND @sos_changed > 0 " +
+    "UNION SELECT s.id, i.user_id FROM survey s JOIN invitation i ON i.survey_id = s.id " +
+    "WHERE s.joinkey = ? AND @sos_changed > 0";
+
+  @Override
+  public boolean participateInSurvey(String keyJoin, int userId) throws RemoteException {
+    // One round trip: the insert's affected rows (0 if unknown key or already joined) gate the rest
+    String sql = scriptTransaction(
+      "INSERT INTO participation (user_id, survey_id) SELECT ?, id FROM survey WHERE joinkey = ? " +
+      "ON DUPLICATE KEY UPDATE user_id = user_id; " +
+      "SET @sos_changed = ROW_COUNT(); " +
+      "DELETE i FROM invitation i JOIN survey s ON s.id = i.survey_id " +
+      "WHERE @sos_changed > 0 AND s.joinkey = ? AND i.user_id = ?; " +
+      "UPDATE survey SET version = ? WHERE @sos_changed > 0 AND joinkey = ?; " +
+      AUDIENCE_BY_JOINKEY_SQL);
+
+    long version = versionClock().begin();
+    try (Connection conn = getConnection()) {
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setInt(1, userId);
+        pstmt.setString(2, keyJoin);
+        pstmt.setString(3, keyJoin);
+        pstmt.setInt(4, userId);
+        pstmt.setLong(5, version);
+        pstmt.setString(6, keyJoin);
+        bindJoinKey(pstmt, 7, keyJoin);
+
+        Set<Integer> audience = new HashSet<>();
+        int[] surveyId = {0};
+        List<Integer> updateCounts = executeScript(conn, pstmt, rs -> {
+          surveyId[0] = rs.getInt("survey_id");
+          audience.add(rs.getInt("user_id"));
+        });
+        if (updateCounts.get(firstScriptStatement()) == 0) return false;
+
+        notifyObservers(ChangeEvent.Type.PARTICIPATION_CHANGED, surveyId[0], version, audience);
+        return true;
+      }
+    } catch (SQLException e) {
+      throw new DataAccessException("Error participating in survey: " + e.getMessage());
+    } finally {
+      endVersion(version);
+    }
+  }
+
+  @Override
+  public boolean declineSurvey(String keyJoin, int userId) throws RemoteException {
+    // One round trip: the deleted invitation (0 rows if not invited) gates the rest
+    String sql = scriptTransaction(
+      "DELETE i FROM invitation i JOIN survey s ON s.id = i.survey_id WHERE s.joinkey = ? AND i.user_id = ?; " +
+      "SET @sos_changed = ROW_COUNT(); " +
+      "INSERT INTO survey_removal (survey_id, user_id, version) " +
+      "SELECT id, ?, ? FROM survey WHERE @sos_changed > 0 AND joinkey = ? " +
+      "ON DUPLICATE KEY UPDATE version = VALUES(version); " +
+      "UPDATE survey SET version = ? WHERE @sos_changed > 0 AND joinkey = ?; " +
+      AUDIENCE_BY_JOINKEY_SQL);
+
+    long version = versionClock().begin();
+    try (Connection conn = getConnection()) {
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        pstmt.setString(1, keyJoin);
+        pstmt.setInt(2, userId);
+        pstmt.setInt(3, userId);
+        pstmt.setLong(4, version);
+        pstmt.setString(5, keyJoin);
+        pstmt.setLong(6, version);
+        pstmt.setString(7, keyJoin);
+        bindJoinKey(pstmt, 8, keyJoin);
+
+        Set<Integer> audience = new HashSet<>();
+        int[] surveyId = {0};
+        List<Integer> updateCounts = executeScript(conn, pstmt, rs -> {
+          surveyId[0] = rs.getInt("survey_id");
+          audience.add(rs.getInt("user_id"));
+        });
+        if (updateCounts.get(firstScriptStatement()) == 0) return false;
+
+        audience.add(userId); // no longer invited, but still has to drop the survey
+        notifyObservers(ChangeEvent.Type.PARTICIPATION_CHANGED, surveyId[0], version, audience);
+        return true;
+      }
+    } catch (SQLException e) {
+      throw new DataAccessException("Error declining survey: " + e.getMessage());
+    } finally {
+      endVersion(version);
+    }
+  }
+
+  // Scripts manage their own transaction, except inside a batch, which already has one
+  private String scriptTransaction(String statements) {
+    return inBatch() ? statements : "START TRANSACTION; " + statements + "; COMMIT";
+  }
+
+  // Index of the script's first own statement among its update counts
+  private int firstScriptStatement() {
+    return inBatch() ? 0 : 1;
+  }
+
+  private static void bindJoinKey(PreparedStatement pstmt, int index, String keyJoin) throws SQLException {
+    for (int i = 0; i < 3; i++) {
+      pstmt.setString(index + i, keyJoin);
+    }
+  }
+
+  @FunctionalInterface
+  private interface RowReader {
+    void read(ResultSet rs) throws SQLException;
+  }
+
+  /**
+   * Executes a multi-statement script in a single round trip. Returns the update count of every
+   * statement that is not a query (in order) and passes each row of every result set to the reader.
+   * A script that fails part way is rolled back explicitly, since it manages its own transaction.
+   */
+  private static List<Integer> executeScript(Connection conn, PreparedStatement pstmt, RowReader reader)
+    throws SQLException {
+    List<Integer> updateCounts = new ArrayList<>();
+    try {
+      boolean isResultSet = pstmt.execute();
+      while (true) {
+        if (isResultSet) {
+          try (ResultSet rs = pstmt.getResultSet()) {
+            while (rs.next()) reader.read(rs);
+          }
+        } else {
+          int count = pstmt.getUpdateCount();
+          if (count == -1) break;
+          updateCounts.add(count);
+        }
+        isResultSet = pstmt.getMoreResults();
+      }
+    } catch (SQLException e) {
+      try (Statement rollback = conn.createStatement()) {
+        rollback.execute("ROLLBACK");
+      } catch (SQLException ignored) {
+        // the original error is more useful
+      }
+      throw e;
+    }
+    return updateCounts;
+  }
+
+  @Override
+  public boolean updateSurvey(AppointmentSurvey currentSurvey) throws RemoteException {
+    // Compare-and-set: only applies if nobody changed the survey since the client's copy was loaded
+    String updateSurveySql = "UPDATE survey SET label = ?, description = ?, open = ?, version = ? " +
+      "WHERE id = ? AND version = ?";
+
+    Connection conn = null;
+    long version = versionClock().begin();
+    try {
+      conn = getConnection();
+      conn.setAutoCommit(false);
+
+      // 1. Update basic survey details, which also locks the row for the rest of the transaction
+      try (PreparedStatement pstmt = conn.prepareStatement(updateSurveySql)) {
+        pstmt.setString(1, currentSurvey.getLabel());
+        pstmt.setString(2, currentSurvey.getDescription());
+        pstmt.setBoolean(3, currentSurvey.isOpen());
+        pstmt.setLong(4, version);
+        pstmt.setInt(5, currentSurvey.getId());
+        pstmt.setLong(6, currentSurvey.getVersion());
+        if (pstmt.executeUpdate() == 0) {
+          conn.rollback();
+          conflictMonitor.recordUpdate(currentSurvey.getId(), true);
+          return false;
+        }
+      }
+
+      // Users who lose their invitation have to be notified as well
+      Set<Integer> audience = loadAudience(conn, currentSurvey.getId());
+
+      // 2. Sync invitations, options and votes by writing only the differences to the stored state
+      syncInvitations(conn, currentSurvey);
+      Map<SurveyOption, Integer> optionIds = syncOptions(conn, currentSurvey);
+      syncVotes(conn, currentSurvey.getId(), optionIds);
+
+      Set<Integer> lostAccess = new HashSet<>(audience);
+      lostAccess.removeAll(loadAudience(conn, currentSurvey.getId()));
+      recordRemovals(conn, currentSurvey.getId(), lostAccess, version);
+
+      conn.commit();
+      conflictMonitor.recordUpdate(currentSurvey.getId(), false);
+      audience.addAll(currentSurvey.getInvitedUserIds());
+      notifyObservers(ChangeEvent.Type.SURVEY_UPDATED, currentSurvey.getId(), version, audience);
+      return true;
+
+    } catch (SQLException e) {
+      try {
+        if (conn != null) conn.rollback();
+      } catch (SQLException ex) {
+        throw new DataAccessException("Error rolling back transaction: " + ex.getMessage());
+      }
+      throw new DataAccessException("Error updating survey: " + e.getMessage());
+    } finally {
+      endVersion(version);
+      try {
+        if (conn != null) {
+          conn.setAutoCommit(true);
+          conn.close();
+        }
+      } catch (SQLException e) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  @Override
+  public void castVotes(int surveyId, int userId, Set<Integer> optionIds, Integer preferredOptionId) throws RemoteException {
+    VoteIngestionQueue.VoteCommand command = new VoteIngestionQueue.VoteCommand(Set.copyOf(optionIds), preferredOptionId);
+    if (inBatch()) {
+      // The queue writes on its own connection and couldn't join the batch transaction
+      writeVoteBatch(surveyId, Map.of(userId, command));
+      return;
+    }
+    awaitCommit(voteQueue.submit(surveyId, userId, command));
+  }
+
+  @Override
+  public void revokeVotes(int surveyId, int userId) throws RemoteException {
+    VoteIngestionQueue.VoteCommand command = new VoteIngestionQueue.VoteCommand(Set.of(), null);
+    if (inBatch()) {
+      writeVoteBatch(surveyId, Map.of(userId, command));
+      return;
+    }
+    awaitCommit(voteQueue.submit(surveyId, userId, command));
+  }
+
+  // The vote only counts as accepted once its batch is committed
+  private static void awaitCommit(CompletableFuture<Void> commit) {
+    try {
+      commit.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof DataAccessException dataAccessException) throw dataAccessException;
+      throw new DataAccessException("Error writing votes: " + e.getCause().getMessage());
+    }
+  }
+
+  /**
+   * Replaces the votes of every user in the batch in one transaction and notifies once.
+   * Votes on closed surveys and on options of other surveys are ignored.
+   */
+  private void writeVoteBatch(int surveyId, Map<Integer, VoteIngestionQueue.VoteCommand> commandsByUser) {
+    // Locks the survey row so it cannot be closed while the votes change
+    String openSql = "SELECT open FROM survey WHERE id = ? FOR UPDATE";
+    String deleteVotesSql = "DELETE v FROM vote v JOIN survey_option so ON so.id = v.survey_option_id " +
+      "WHERE so.survey_id = ? AND v.user_id IN (";
+    String insertVoteSql = "INSERT INTO vote (user_id, survey_option_id, is_preferred) " +
+      "SELECT ?, so.id, ? FROM survey_option so WHERE so.id = ? AND so.survey_id = ?";
+
+    Connection conn = null;
+    long version = versionClock().begin();
+    try {
+      conn = getConnection();
+      conn.setAutoCommit(false);
+
+      boolean open;
+      try (PreparedStatement pstmt = conn.prepareStatement(openSql)) {
+        pstmt.setInt(1, surveyId);
+        try (ResultSet rs = pstmt.executeQuery()) {
+          open = rs.next() && rs.getBoolean("open");
+        }
+      }
+      if (!open) {
+        conn.commit();
+        return;
+      }
+
+      List<Integer> userIds = new ArrayList<>(commandsByUser.keySet());
+      int changed = 0;
+      for (int from = 0; from < userIds.size(); from += MAX_IN_LIST_SIZE) {
+        List<Integer> chunk = userIds.subList(from, Math.min(userIds.size(), from + MAX_IN_LIST_SIZE));
+        adjustUserTallies(conn, surveyId, chunk, -1);
+        try (PreparedStatement pstmt = conn.prepareStatement(deleteVotesSql + placeholders(chunk.size()) + ")")) {
+          pstmt.setInt(1, surveyId);
+          for (int i = 0; i < chunk.size(); i++) {
+            pstmt.setInt(i + 2, chunk.get(i));
+          }
+          changed += pstmt.executeUpdate();
+        }
+      }
+
+      boolean inserted = false;
+      try (PreparedStatement pstmt = conn.prepareStatement(insertVoteSql)) {
+        for (Map.Entry<Integer, VoteIngestionQueue.VoteCommand> entry : commandsByUser.entrySet()) {
+          VoteIngestionQueue.VoteCommand command = entry.getValue();
+          for (Integer optionId : command.optionIds()) {
+            pstmt.setInt(1, entry.getKey());
+            pstmt.setBoolean(2, optionId.equals(command.preferredOptionId()));
+            pstmt.setInt(3, optionId);
+            pstmt.setInt(4, surveyId);
+            pstmt.addBatch();
+            inserted = true;
+          }
+        }
+        if (inserted) {
+          for (int count : pstmt.executeBatch()) changed += Math.max(count, 0);
+        }
+      }
+      if (inserted) {
+        for (int from = 0; from < userIds.size(); from += MAX_IN_LIST_SIZE) {
+          adjustUserTallies(conn, surveyId, userIds.subList(from, Math.min(userIds.size(), from + MAX_IN_LIST_SIZE)), 1);
+        }
+      }
+
+      if (changed > 0) touchSurvey(conn, surveyId, version);
+      conn.commit();
+      if (changed > 0) {
+        notifyObservers(ChangeEvent.Type.VOTE_CHANGED, surveyId, version, loadAudience(conn, surveyId));
+      }
+
+    } catch (SQLException e) {
+      try {
+        if (conn != null) conn.rollback();
+      } catch (SQLException ex) {
+        throw new DataAccessException("Error rolling back transaction: " + ex.getMessage());
+      }
+      throw new DataAccessException("Error writing votes: " + e.getMessage());
+    } finally {
+      endVersion(version);
+      try {
+        if (conn != null) {
+          conn.setAutoCommit(true);
+          conn.close();
+        }
+      } catch (SQLException e) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  @Override
+  public void closeSurvey(int surveyId) throws RemoteException {
+    String sql = "UPDATE survey SET open = 0, version = ? WHERE id = ? AND open = 1";
+    long version = versionClock().begin();
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      pstmt.setLong(1, version);
+      pstmt.setInt(2, surveyId);
+      if (pstmt.executeUpdate() > 0) {
+        notifyObservers(ChangeEvent.Type.SURVEY_UPDATED, surveyId, version, loadAudience(conn, surveyId));
+      }
+    } catch (SQLException e) {
+      throw new DataAccessException("Error closing survey: " + e.getMessage());
+    } finally {
+      endVersion(version);
+    }
+  }
+
+  @Override
+  public boolean inviteUser(int surveyId, int userId) throws RemoteException {
+    // Affected rows: 1 for a new invitation, 0 if the user was already invited
+    String sql = "INSERT INTO invitation (user_id, survey_id) VALUES (?, ?) ON DUPLICATE KEY UPDATE user_id = user_id";
+    long version = versionClock().begin();
+    try (Connection conn = getConnection();
+         PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      pstmt.setInt(1, userId);
+      pstmt.setInt(2, surveyId);
+      if (pstmt.executeUpdate() == 1) {
+        touchSurvey(conn, surveyId, version);
+        notifyObservers(ChangeEvent.Type.INVITATION_ADDED, surveyId, version, loadAudience(conn, surveyId));
+        return true;
+      }
+    } catch (SQLException e) {
+      throw new DataAccessException("Error inviting user: " + e.getMessage());
+    } finally {
+      endVersion(version);
+    }
+    return false;
+  }
+
+  // --- Helper methods for change versions and notifications ---
+
+  // Borrows a connection on first use, so never call it while holding one: with a small pool
+  // the two borrows can deadlock
+  private synchronized VersionClock versionClock() {
+    if (versionClock == null) {
+      String sql = "SELECT GREATEST((SELECT COALESCE(MAX(version), 0) FROM survey), " +
+        "(SELECT COALESCE(MAX(version), 0) FROM survey_removal))";
+      try (Connection conn = getConnection();
+           PreparedStatement pstmt = conn.prepareStatement(sql);
+           ResultSet rs = pstmt.executeQuery()) {
+        versionClock = new VersionClock(rs.next() ? rs.getLong(1) : 0);
+      } catch (SQLException e) {
+        throw new DataAccessException("Error reading current change version: " + e.getMessage());
+      }
+    }
+    return versionClock;
+  }
+
+  private void touchSurvey(Connection conn, int surveyId, long version) throws SQLException {
+    try (PreparedStatement pstmt = conn.prepareStatement("UPDATE survey SET version = ? WHERE id = ?")) {
+      pstmt.setLong(1, version);
+      pstmt.setInt(2, surveyId);
+      pstmt.executeUpdate();
+    }
+  }
+
+  // Remembers that these users lost access to the survey, so delta syncs can report the removal
+  private void recordRemovals(Connection conn, int surveyId, Set<Integer> userIds, long version) throws SQLException {
+    if (userIds.isEmpty()) return;
+    String sql = "INSERT INTO survey_removal (survey_id, user_id, version) VALUES (?, ?, ?) " +
+      "ON DUPLICATE KEY UPDATE version = VALUES(version)";
+    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      for (Integer userId : userIds) {
+        pstmt.setInt(1, surveyId);
+        pstmt.setInt(2, userId);
+        pstmt.setLong(3, version);
+        pstmt.addBatch();
+      }
+      pstmt.executeBatch();
+    }
+  }
+
+  // Users who may see the survey: creator, participants and invited users
+  private Set<Integer> loadAudience(Connection conn, int surveyId) throws SQLException {
+    String sql = AUDIENCE_SQL;
+    Set<Integer> audience = new HashSet<>();
+    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      pstmt.setInt(1, surveyId);
+      pstmt.setInt(2, surveyId);
+      pstmt.setInt(3, surveyId);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          audience.add(rs.getInt("user_id"));
+        }
+      }
+    }
+    return audience;
+  }
+
+  // --- Helper methods for diff-based survey updates ---
+
+  private record VoteKey(int optionId, int userId) {}
+
+  private void syncInvitations(Connection conn, AppointmentSurvey survey) throws SQLException {
+    Set<Integer> stored = new HashSet<>();
+    try (PreparedStatement pstmt = conn.prepareStatement("SELECT user_id FROM invitation WHERE survey_id = ?")) {
+      pstmt.setInt(1, survey.getId());
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          stored.add(rs.getInt("user_id"));
+        }
+      }
+    }
+
+    Set<Integer> added = new HashSet<>(survey.getInvitedUserIds());
+    added.removeAll(stored);
+    Set<Integer> removed = new HashSet<>(stored);
+    removed.removeAll(survey.getInvitedUserIds());
+
+    executeUserBatch(conn, "DELETE FROM invitation WHERE user_id = ? AND survey_id = ?", removed, survey.getId());
+    executeUserBatch(conn, "INSERT INTO invitation (user_id, survey_id) VALUES (?, ?)", added, survey.getId());
+  }
+
+  /**
+   * Keeps existing option rows (and therefore their ids) and only inserts, moves or deletes
+   * the options that differ. Returns the database id of every incoming option.
+   */
+  private Map<SurveyOption, Integer> syncOptions(Connection conn, AppointmentSurvey survey) throws SQLException {
+    Map<Integer, LocalDateTime> stored = new HashMap<>();
+    try (PreparedStatement pstmt = conn.prepareStatement("SELECT id, timeOption FROM survey_option WHERE survey_id = ?")) {
       pstmt.setInt(1, survey.getId());
       try (ResultSet rs = pstmt.executeQuery()) {
         while (rs.next()) {
-          survey.getInvitedUserIds().add(rs.getInt("user_id"));
+          stored.put(rs.getInt("id"), rs.getTimestamp("timeOption").toLocalDateTime());
+        }
+      }
+    }
+
+    Map<SurveyOption, Integer> optionIds = new IdentityHashMap<>();
+    List<SurveyOption> moved = new ArrayList<>();
+    List<SurveyOption> inserted = new ArrayList<>();
+    for (SurveyOption option : survey.getOptions()) {
+      LocalDateTime storedTime = stored.remove(option.getId());
+      if (storedTime == null) {
+        inserted.add(option);
+      } else {
+        optionIds.put(option, option.getId());
+        if (!storedTime.equals(option.getTimeOption())) moved.add(option);
+      }
+    }
+
+    // Whatever is left in 'stored' is no longer part of the survey; its votes cascade
+    executeUserBatch(conn, "DELETE FROM survey_option WHERE id = ? AND survey_id = ?", stored.keySet(), survey.getId());
+
+    if (!moved.isEmpty()) {
+      try (PreparedStatement pstmt = conn.prepareStatement("UPDATE survey_option SET timeOption = ? WHERE id = ?")) {
+        for (SurveyOption option : moved) {
+          pstmt.setTimestamp(1, Timestamp.valueOf(option.getTimeOption()));
+          pstmt.setInt(2, option.getId());
+          pstmt.addBatch();
+        }
+        pstmt.executeBatch();
+      }
+    }
+
+    if (!inserted.isEmpty()) {
+      String sql = "INSERT INTO survey_option (timeOption, survey_id) VALUES (?, ?)";
+      try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        for (SurveyOption option : inserted) {
+          pstmt.setTimestamp(1, Timestamp.valueOf(option.getTimeOption()));
+          pstmt.setInt(2, survey.getId());
+          pstmt.addBatch();
+        }
+        pstmt.executeBatch();
+        try (ResultSet rs = pstmt.getGeneratedKeys()) {
+          for (SurveyOption option : inserted) {
+            if (!rs.next()) throw new SQLException("Failed to create survey option.");
+            optionIds.put(option, rs.getInt(1));
+          }
+        }
+      }
+    }
+    return optionIds;
+  }
+
+  private void syncVotes(Connection conn, int surveyId, Map<SurveyOption, Integer> optionIds) throws SQLException {
+    String storedSql = "SELECT v.survey_option_id, v.user_id, v.is_preferred FROM vote v " +
+      "JOIN survey_option so ON so.id = v.survey_option_id WHERE so.survey_id = ?";
+    Map<VoteKey, Boolean> stored = new HashMap<>();
+    try (PreparedStatement pstmt = conn.prepareStatement(storedSql)) {
+      pstmt.setInt(1, surveyId);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          stored.put(new VoteKey(rs.getInt("survey_option_id"), rs.getInt("user_id")), rs.getBoolean("is_preferred"));
+        }
+      }
+    }
+
+    Map<VoteKey, Boolean> inserted = new HashMap<>();
+    Map<VoteKey, Boolean> changed = new HashMap<>();
+    for (Map.Entry<SurveyOption, Integer> entry : optionIds.entrySet()) {
+      SurveyOption option = entry.getKey();
+      for (Integer voterId : option.getVotedUserIds()) {
+        VoteKey key = new VoteKey(entry.getValue(), voterId);
+        boolean preferred = option.hasPreferred(voterId);
+        Boolean storedPreferred = stored.remove(key);
+        if (storedPreferred == null) {
+          inserted.put(key, preferred);
+        } else if (storedPreferred != preferred) {
+          changed.put(key, preferred);
         }
       }
     }
+
+    // Remaining stored votes were revoked
+    if (!stored.isEmpty()) {
+      try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM vote WHERE user_id = ? AND survey_option_id = ?")) {
+        for (VoteKey key : stored.keySet()) {
+          pstmt.setInt(1, key.userId());
+          pstmt.setInt(2, key.optionId());
+          pstmt.addBatch();
+        }
+        pstmt.executeBatch();
+      }
+    }
+    executeVoteBatch(conn, "UPDATE vote SET is_preferred = ? WHERE user_id = ? AND survey_option_id = ?", changed);
+    executeVoteBatch(conn, "INSERT INTO vote (is_preferred, user_id, survey_option_id) VALUES (?, ?, ?)", inserted);
+
+    // Same differences applied to the tallies: {votes, preferred votes} per option
+    Map<Integer, int[]> deltas = new HashMap<>();
+    stored.forEach((key, preferred) -> addTallyDelta(deltas, key.optionId(), -1, preferred ? -1 : 0));
+    changed.forEach((key, preferred) -> addTallyDelta(deltas, key.optionId(), 0, preferred ? 1 : -1));
+    inserted.forEach((key, preferred) -> addTallyDelta(deltas, key.optionId(), 1, preferred ? 1 : 0));
+    if (!deltas.isEmpty()) {
+      String sql = "UPDATE survey_option SET vote_count = vote_count + ?, preferred_count = preferred_count + ? WHERE id = ?";
+      try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        for (Map.Entry<Integer, int[]> delta : deltas.entrySet()) {
+          pstmt.setInt(1, delta.getValue()[0]);
+          pstmt.setInt(2, delta.getValue()[1]);
+          pstmt.setInt(3, delta.getKey());
+          pstmt.addBatch();
+        }
+        pstmt.executeBatch();
+      }
+    }
   }
 
-  private void loadSurveyOptionsAndVotes(Connection conn, AppointmentSurvey survey) throws SQLException {
-    String optionsSql = "SELECT id, timeOption FROM survey_option WHERE survey_id = ?";
-    String votesSql = "SELECT user_id, is_preferred FROM vote WHERE survey_option_id = ?";
+  private static void addTallyDelta(Map<Integer, int[]> deltas, int optionId, int votes, int preferredVotes) {
+    int[] delta = deltas.computeIfAbsent(optionId, id -> new int[2]);
+    delta[0] += votes;
+    delta[1] += preferredVotes;
+  }
+
+  /**
+   * Adds sign (1 or -1) to the tallies of every option the users currently vote for in the survey.
+   * Call with -1 before deleting the users' votes and with 1 after inserting them, in the same transaction.
+   */
+  private static void adjustUserTallies(Connection conn, int surveyId, List<Integer> userIds, int sign) throws SQLException {
+    String sql = "UPDATE survey_option so JOIN (SELECT survey_option_id, COUNT(*) AS votes, " +
+      "SUM(is_preferred = 1) AS preferred_votes FROM vote WHERE user_id IN (" + placeholders(userIds.size()) + ") " +
+      "GROUP BY survey_option_id) v ON v.survey_option_id = so.id " +
+      "SET so.vote_count = so.vote_count + ? * v.votes, so.preferred_count = so.preferred_count + ? * v.preferred_votes " +
+      "WHERE so.survey_id = ?";
+    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      bindIds(pstmt, userIds);
+      pstmt.setInt(userIds.size() + 1, sign);
+      pstmt.setInt(userIds.size() + 2, sign);
+      pstmt.setInt(userIds.size() + 3, surveyId);
+      pstmt.executeUpdate();
+    }
+  }
+
+  private static void executeUserBatch(Connection conn, String sql, Set<Integer> ids, int surveyId) throws SQLException {
+    if (ids.isEmpty()) return;
+    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      for (Integer id : ids) {
+        pstmt.setInt(1, id);
+        pstmt.setInt(2, surveyId);
+        pstmt.addBatch();
+      }
+      pstmt.executeBatch();
+    }
+  }
 
-    SortedSet<SurveyOption> options = new TreeSet<>();
+  private static void executeVoteBatch(Connection conn, String sql, Map<VoteKey, Boolean> votes) throws SQLException {
+    if (votes.isEmpty()) return;
+    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      for (Map.Entry<VoteKey, Boolean> vote : votes.entrySet()) {
+        pstmt.setBoolean(1, vote.getValue());
+        pstmt.setInt(2, vote.getKey().userId());
+        pstmt.setInt(3, vote.getKey().optionId());
+        pstmt.addBatch();
+      }
+      pstmt.executeBatch();
+    }
+  }
+
+  // --- Helper methods for populating survey objects ---
 
-    try (PreparedStatement optionsPstmt = conn.prepareStatement(optionsSql)) {
-      optionsPstmt.setInt(1, survey.getId());
-      try (ResultSet optionsRs = optionsPstmt.executeQuery()) {
-        while (optionsRs.next()) {
-          int optionId = optionsRs.getInt("id");
-          LocalDateTime timeOption = optionsRs.getTimestamp("timeOption").toLocalDateTime();
-          SurveyOption option = new SurveyOption(optionId, timeOption);
+  // Upper bound for the number of ids bound into a single IN (...) list
+  private static final int MAX_IN_LIST_SIZE = 500;
 
-          try (PreparedStatement votesPstmt = conn.prepareStatement(votesSql)) {
-            votesPstmt.setInt(1, optionId);
-            try (ResultSet votesRs = votesPstmt.executeQuery()) {
-              while(votesRs.next()) {
-                int userId = votesRs.getInt("user_id");
-                boolean isPreferred = votesRs.getBoolean("is_preferred");
+  /**
+   * Loads the complete object graphs of the given surveys with a constant number of
+   * queries per chunk of ids (surveys, participants, invitations, options with votes).
+   * The result keeps the order of {@code surveyIds}; unknown ids are skipped.
+   */
+  private List<AppointmentSurvey> loadSurveys(Connection conn, List<Integer> surveyIds) throws SQLException {
+    Map<Integer, AppointmentSurvey> surveysById = new HashMap<>();
+    for (int from = 0; from < surveyIds.size(); from += MAX_IN_LIST_SIZE) {
+      List<Integer> chunk = surveyIds.subList(from, Math.min(surveyIds.size(), from + MAX_IN_LIST_SIZE));
+      Map<Integer, AppointmentSurvey> loaded = loadSurveyRows(conn, chunk);
+      if (loaded.isEmpty()) continue;
+
+      List<Integer> loadedIds = new ArrayList<>(loaded.keySet());
+      loadSurveyParticipants(conn, loaded, loadedIds);
+      loadSurveyInvitations(conn, loaded, loadedIds);
+      loadSurveyOptionsAndVotes(conn, loaded, loadedIds);
+      surveysById.putAll(loaded);
+    }
+
+    List<AppointmentSurvey> surveys = new ArrayList<>(surveysById.size());
+    for (Integer surveyId : surveyIds) {
+      AppointmentSurvey survey = surveysById.get(surveyId);
+      if (survey != null) surveys.add(survey);
+    }
+    return surveys;
+  }
 
-                option.vote(userId); // Every record in the vote table is a vote
-                if (isPreferred) {
-                  option.prefer(userId); // If the flag is set, it's also a preference
-                }
-              }
+  private Map<Integer, AppointmentSurvey> loadSurveyRows(Connection conn, List<Integer> surveyIds) throws SQLException {
+    String sql = SURVEY_ROWS_SQL.formatted(placeholders(surveyIds.size()));
+    Map<Integer, AppointmentSurvey> surveys = new HashMap<>();
+    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      bindIds(pstmt, surveyIds);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          AppointmentSurvey survey = new AppointmentSurvey(
+            rs.getInt("id"),
+            rs.getInt("created_by"),
+            rs.getString("label"),
+            rs.getString("description"),
+            rs.getTimestamp("created_at").toLocalDateTime(),
+            rs.getString("joinkey")
+          );
+          if (!rs.getBoolean("open")) {
+            survey.close();
+          }
+          survey.setVersion(rs.getLong("version"));
+          surveys.put(survey.getId(), survey);
+        }
+      }
+    }
+    return surveys;
+  }
+
+  private void loadSurveyParticipants(Connection conn, Map<Integer, AppointmentSurvey> surveys,
+                                      List<Integer> surveyIds) throws SQLException {
+    String sql = PARTICIPANTS_SQL.formatted(placeholders(surveyIds.size()));
+    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      bindIds(pstmt, surveyIds);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          surveys.get(rs.getInt("survey_id")).getParticipantUserIds().add(rs.getInt("user_id"));
+        }
+      }
+    }
+  }
+
+  private void loadSurveyInvitations(Connection conn, Map<Integer, AppointmentSurvey> surveys,
+                                     List<Integer> surveyIds) throws SQLException {
+    String sql = INVITATIONS_SQL.formatted(placeholders(surveyIds.size()));
+    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      bindIds(pstmt, surveyIds);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          surveys.get(rs.getInt("survey_id")).getInvitedUserIds().add(rs.getInt("user_id"));
+        }
+      }
+    }
+  }
+
+  private void loadSurveyOptionsAndVotes(Connection conn, Map<Integer, AppointmentSurvey> surveys,
+                                         List<Integer> surveyIds) throws SQLException {
+    String sql = OPTIONS_AND_VOTES_SQL.formatted(placeholders(surveyIds.size()));
+
+    Map<Integer, SurveyOption> options = new HashMap<>();
+    Map<Integer, Integer> surveyIdByOptionId = new HashMap<>();
+
+    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      bindIds(pstmt, surveyIds);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        while (rs.next()) {
+          int optionId = rs.getInt("id");
+          SurveyOption option = options.get(optionId);
+          if (option == null) {
+            option = new SurveyOption(optionId, rs.getTimestamp("timeOption").toLocalDateTime());
+            options.put(optionId, option);
+            surveyIdByOptionId.put(optionId, rs.getInt("survey_id"));
+          }
+
+          int userId = rs.getInt("user_id");
+          if (!rs.wasNull()) {
+            option.vote(userId); // Every record in the vote table is a vote
+            if (rs.getBoolean("is_preferred")) {
+              option.prefer(userId); // If the flag is set, it's also a preference
             }
           }
-          options.add(option);
         }
       }
     }
-    survey.getOptions().addAll(options);
+
+    // Options are only added once all votes are known, since the sort order depends on them
+    options.forEach((optionId, option) -> surveys.get(surveyIdByOptionId.get(optionId)).addOption(option));
+  }
+
+  private static String placeholders(int count) {
+    return String.join(", ", Collections.nCopies(count, "?"));
+  }
+
+  private static void bindIds(PreparedStatement pstmt, List<Integer> ids) throws SQLException {
+    for (int i = 0; i < ids.size(); i++) {
+      pstmt.setInt(i + 1, ids.get(i));
+    }
   }
-}
\ No newline at end of file
+}
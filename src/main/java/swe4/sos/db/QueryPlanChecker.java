@@ -0,0 +1,46 @@
+package swe4.sos.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs MySQL's EXPLAIN on statements and flags full table scans (access type ALL),
+ * which usually mean a lookup path lacks an index.
+ */
+public class QueryPlanChecker {
+
+  public record Query(String name, String sql, List<Object> sampleParameters) {
+  }
+
+  public record Finding(String query, String table, long estimatedRows, String possibleKeys) {
+    @Override
+    public String toString() {
+      return "Full scan of '%s' (~%d rows) in %s, possible keys: %s".formatted(
+        table, estimatedRows, query, possibleKeys == null ? "none" : possibleKeys);
+    }
+  }
+
+  static List<Finding> check(Connection conn, List<Query> queries, long minRows) throws SQLException {
+    List<Finding> findings = new ArrayList<>();
+    for (Query query : queries) {
+      try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + query.sql())) {
+        for (int i = 0; i < query.sampleParameters().size(); i++) {
+          pstmt.setObject(i + 1, query.sampleParameters().get(i));
+        }
+        try (ResultSet rs = pstmt.executeQuery()) {
+          while (rs.next()) {
+            long rows = rs.getLong("rows");
+            if ("ALL".equals(rs.getString("type")) && rows >= minRows) {
+              findings.add(new Finding(query.name(), rs.getString("table"), rows, rs.getString("possible_keys")));
+            }
+          }
+        }
+      }
+    }
+    return findings;
+  }
+}
@@ -0,0 +1,163 @@
+package swe4.sos.db;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Brings the database schema up to date by applying the numbered SQL scripts in
+ * {@code migrations/} that are not yet recorded in the {@code schema_version} table.
+ * A database that already has the tables of the first migration but no version table
+ * (created by the original setup script) is taken as being at version 1. One that also has
+ * later changes can't be placed reliably and is refused.
+ */
+public class SchemaMigrator {
+
+  public record Migration(int version, String description, String resource) {
+  }
+
+  // In order; never change a script that has been released, add a new one instead
+  private static final List<Migration> MIGRATIONS = List.of(
+    new Migration(1, "create schema", "migrations/V1__create_schema.sql"),
+    new Migration(2, "change versions", "migrations/V2__change_versions.sql"),
+    new Migration(3, "pagination indexes", "migrations/V3__pagination_indexes.sql"),
+    new Migration(4, "vote tallies", "migrations/V4__vote_tallies.sql"),
+    new Migration(5, "lookup indexes", "migrations/V5__lookup_indexes.sql")
+  );
+
+  private static final String LOCK_NAME = "sos_schema_migration";
+  private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+  /** Applies all pending migrations and returns them; serialized across servers by a named lock. */
+  static List<Migration> migrate(Connection conn) throws SQLException {
+    if (!acquireLock(conn)) {
+      throw new SQLException("Timed out waiting for another server to finish migrating the schema");
+    }
+    try {
+      createVersionTable(conn);
+      Set<Integer> applied = loadAppliedVersions(conn);
+      if (applied.isEmpty() && tableExists(conn, "survey")) {
+        if (columnExists(conn, "survey", "version") || tableExists(conn, "survey_removal")) {
+          throw new SQLException("The database has changes newer than version 1 but no schema_version table; " +
+            "record the applied versions in schema_version or recreate the schema");
+        }
+        recordVersion(conn, MIGRATIONS.getFirst(), "baseline");
+        applied.add(MIGRATIONS.getFirst().version());
+      }
+
+      List<Migration> pending = new ArrayList<>();
+      for (Migration migration : MIGRATIONS) {
+        if (applied.contains(migration.version())) continue;
+        // MySQL commits DDL implicitly, so each statement takes effect on its own
+        try (Statement stmt = conn.createStatement()) {
+          for (String sql : splitStatements(readResource(migration.resource()))) {
+            stmt.execute(sql);
+          }
+        }
+        recordVersion(conn, migration, "applied");
+        pending.add(migration);
+      }
+      return pending;
+    } finally {
+      try (PreparedStatement pstmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+        pstmt.setString(1, LOCK_NAME);
+        pstmt.executeQuery().close();
+      }
+    }
+  }
+
+  private static boolean acquireLock(Connection conn) throws SQLException {
+    try (PreparedStatement pstmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+      pstmt.setString(1, LOCK_NAME);
+      pstmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        return rs.next() && rs.getInt(1) == 1;
+      }
+    }
+  }
+
+  private static void createVersionTable(Connection conn) throws SQLException {
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (version int primary key, " +
+        "description varchar(100) not null, status varchar(20) not null, applied_at datetime not null)");
+    }
+  }
+
+  private static Set<Integer> loadAppliedVersions(Connection conn) throws SQLException {
+    Set<Integer> versions = new HashSet<>();
+    try (Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery("SELECT version FROM schema_version")) {
+      while (rs.next()) {
+        versions.add(rs.getInt("version"));
+      }
+    }
+    return versions;
+  }
+
+  private static boolean tableExists(Connection conn, String table) throws SQLException {
+    String sql = "SELECT 1 FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?";
+    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      pstmt.setString(1, table);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        return rs.next();
+      }
+    }
+  }
+
+  private static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+    String sql = "SELECT 1 FROM information_schema.columns " +
+      "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?";
+    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      pstmt.setString(1, table);
+      pstmt.setString(2, column);
+      try (ResultSet rs = pstmt.executeQuery()) {
+        return rs.next();
+      }
+    }
+  }
+
+  private static void recordVersion(Connection conn, Migration migration, String status) throws SQLException {
+    String sql = "INSERT INTO schema_version (version, description, status, applied_at) VALUES (?, ?, ?, NOW())";
+    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      pstmt.setInt(1, migration.version());
+      pstmt.setString(2, migration.description());
+      pstmt.setString(3, status);
+      pstmt.executeUpdate();
+    }
+  }
+
+  private static String readResource(String resource) throws SQLException {
+    try (InputStream in = SchemaMigrator.class.getResourceAsStream(resource)) {
+      if (in == null) throw new SQLException("Missing migration script " + resource);
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new SQLException("Can't read migration script " + resource + ": " + e.getMessage());
+    }
+  }
+
+  // Statements end with a semicolon at the end of a line; lines starting with -- are comments
+  static List<String> splitStatements(String script) {
+    List<String> statements = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    for (String line : script.split("\\R")) {
+      String trimmed = line.trim();
+      if (trimmed.isEmpty() || trimmed.startsWith("--")) continue;
+      current.append(line).append('\n');
+      if (trimmed.endsWith(";")) {
+        statements.add(current.substring(0, current.lastIndexOf(";")).trim());
+        current.setLength(0);
+      }
+    }
+    if (!current.isEmpty()) statements.add(current.toString().trim());
+    return statements;
+  }
+}
@@ -0,0 +1,324 @@
+package swe4.sos.db;
+
+import swe4.sos.server.metrics.CallObserver;
+import swe4.sos.server.metrics.SqlProfilerMXBean;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Times every JDBC statement {@link DBRepository} runs and attributes it to the repository call
+ * on the same thread (see {@link #scope}). Per call it counts statements and borrowed
+ * connections; a call that runs one statement at least {@code nPlusOneThreshold} times is
+ * recorded as an N+1 offender. Statements slower than the threshold are logged together with
+ * the types of their parameters. The recent findings are kept for {@link SqlProfilerMXBean}.
+ */
+public class SqlProfiler implements SqlProfilerMXBean, CallObserver {
+
+  private static final int RECENT_FINDINGS = 100;
+  private static final int MAX_NORMALIZED_SQL = 1_000;
+  private static final Pattern IN_LIST = Pattern.compile("IN\\s*\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)", Pattern.CASE_INSENSITIVE);
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  private record CallEntry(String method, long[] totals) implements CallStatistics {
+    // totals: calls, statements, connections, max statements, sql nanos, N+1 calls
+    public String getMethod() { return method; }
+    public long getCalls() { return totals[0]; }
+    public long getStatements() { return totals[1]; }
+    public long getConnections() { return totals[2]; }
+    public long getMaxStatementsPerCall() { return totals[3]; }
+    public double getSqlMillis() { return totals[4] / 1e6; }
+    public long getNPlusOneCalls() { return totals[5]; }
+  }
+
+  private record SlowEntry(String method, String sql, String parameters, double millis, LocalDateTime time)
+    implements SlowStatement {
+    public String getMethod() { return method; }
+    public String getSql() { return sql; }
+    public String getParameters() { return parameters; }
+    public double getMillis() { return millis; }
+    public String getTime() { return time.toString(); }
+  }
+
+  private record OffenderEntry(String method, String sql, int executions, LocalDateTime time)
+    implements NPlusOneOffender {
+    public String getMethod() { return method; }
+    public String getSql() { return sql; }
+    public int getExecutions() { return executions; }
+    public String getTime() { return time.toString(); }
+  }
+
+  // Statements of the repository call running on one thread
+  private static final class CallProfile {
+    final String method;
+    final Map<String, Integer> executionsBySql = new HashMap<>();
+    int depth = 1, statements, connections;
+    long sqlNanos;
+
+    CallProfile(String method) {
+      this.method = method;
+    }
+  }
+
+  /** Ends the scope opened by {@link #scope}; does nothing for a nested one. */
+  interface Scope extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  private volatile long slowThresholdNanos;
+  private volatile int nPlusOneThreshold;
+  private final ThreadLocal<CallProfile> currentCall = new ThreadLocal<>();
+  private final Map<String, String> normalizedSql = new ConcurrentHashMap<>();
+  private final LongAdder statements = new LongAdder();
+  private final LongAdder slowStatements = new LongAdder();
+  private final Map<String, long[]> totalsByMethod = new HashMap<>();
+  private final Deque<SlowEntry> recentSlow = new ArrayDeque<>();
+  private final Deque<OffenderEntry> recentOffenders = new ArrayDeque<>();
+
+  SqlProfiler(Duration slowThreshold, int nPlusOneThreshold) {
+    this.slowThresholdNanos = slowThreshold.toNanos();
+    this.nPlusOneThreshold = nPlusOneThreshold;
+  }
+
+  /** Attributes the statements of this thread to the given call until the scope is closed. */
+  Scope scope(String method) {
+    callStarted(method);
+    return () -> callFinished(method, false);
+  }
+
+  @Override
+  public void callStarted(String method) {
+    CallProfile call = currentCall.get();
+    if (call != null) call.depth++;
+    else currentCall.set(new CallProfile(method));
+  }
+
+  @Override
+  public void callFinished(String method, boolean failed) {
+    CallProfile call = currentCall.get();
+    if (call == null || --call.depth > 0) return;
+    currentCall.remove();
+
+    String offendingSql = null;
+    int executions = 0;
+    for (Map.Entry<String, Integer> entry : call.executionsBySql.entrySet()) {
+      if (entry.getValue() > executions) {
+        offendingSql = entry.getKey();
+        executions = entry.getValue();
+      }
+    }
+    boolean nPlusOne = executions >= nPlusOneThreshold;
+
+    synchronized (this) {
+      long[] totals = totalsByMethod.computeIfAbsent(call.method, m -> new long[6]);
+      totals[0]++;
+      totals[1] += call.statements;
+      totals[2] += call.connections;
+      totals[3] = Math.max(totals[3], call.statements);
+      totals[4] += call.sqlNanos;
+      if (nPlusOne) {
+        totals[5]++;
+        remember(recentOffenders, new OffenderEntry(call.method, offendingSql, executions, LocalDateTime.now()));
+      }
+    }
+    if (nPlusOne) {
+      System.out.printf("N+1 queries in %s: %d executions of %s%n", call.method, executions, offendingSql);
+    }
+  }
+
+  /** Returns the connection with all statements it creates being timed. */
+  Connection wrap(Connection connection) {
+    CallProfile call = currentCall.get();
+    if (call != null) call.connections++;
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+      new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+  }
+
+  private void record(String sql, List<String> parameterTypes, long nanos) {
+    statements.increment();
+    CallProfile call = currentCall.get();
+    String method = call != null ? call.method : "(no call)";
+    if (call != null) {
+      call.statements++;
+      call.sqlNanos += nanos;
+      call.executionsBySql.merge(normalize(sql), 1, Integer::sum);
+    }
+
+    if (nanos >= slowThresholdNanos) {
+      slowStatements.increment();
+      SlowEntry entry = new SlowEntry(method, normalize(sql), String.join(", ", parameterTypes), nanos / 1e6, LocalDateTime.now());
+      synchronized (this) {
+        remember(recentSlow, entry);
+      }
+      System.out.printf("Slow SQL (%.1f ms) in %s: %s [%s]%n", entry.millis(), method, entry.sql(), entry.parameters());
+    }
+  }
+
+  // The same statement with IN lists of different length counts as one
+  private String normalize(String sql) {
+    String normalized = normalizedSql.get(sql);
+    if (normalized == null) {
+      normalized = WHITESPACE.matcher(IN_LIST.matcher(sql).replaceAll("IN (?...)")).replaceAll(" ").trim();
+      if (normalizedSql.size() < MAX_NORMALIZED_SQL) normalizedSql.put(sql, normalized);
+    }
+    return normalized;
+  }
+
+  private static <T> void remember(Deque<T> recent, T entry) {
+    if (recent.size() == RECENT_FINDINGS) recent.removeFirst();
+    recent.addLast(entry);
+  }
+
+  @Override
+  public long getStatements() {
+    return statements.sum();
+  }
+
+  @Override
+  public long getSlowStatementCount() {
+    return slowStatements.sum();
+  }
+
+  @Override
+  public double getSlowThresholdMillis() {
+    return slowThresholdNanos / 1e6;
+  }
+
+  @Override
+  public void setSlowThresholdMillis(double millis) {
+    slowThresholdNanos = (long) (millis * 1e6);
+  }
+
+  @Override
+  public int getNPlusOneThreshold() {
+    return nPlusOneThreshold;
+  }
+
+  @Override
+  public void setNPlusOneThreshold(int executions) {
+    nPlusOneThreshold = executions;
+  }
+
+  @Override
+  public synchronized List<CallStatistics> getCallStatistics() {
+    List<CallStatistics> result = new ArrayList<>();
+    totalsByMethod.forEach((method, totals) -> result.add(new CallEntry(method, totals.clone())));
+    return result;
+  }
+
+  @Override
+  public synchronized List<SlowStatement> getRecentSlowStatements() {
+    return new ArrayList<>(recentSlow);
+  }
+
+  @Override
+  public synchronized List<NPlusOneOffender> getRecentNPlusOneOffenders() {
+    return new ArrayList<>(recentOffenders);
+  }
+
+  @Override
+  public synchronized void reset() {
+    statements.reset();
+    slowStatements.reset();
+    totalsByMethod.clear();
+    recentSlow.clear();
+    recentOffenders.clear();
+  }
+
+  private final class ConnectionHandler implements InvocationHandler {
+    private final Connection connection;
+
+    private ConnectionHandler(Connection connection) {
+      this.connection = connection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "equals" -> {
+          return proxy == args[0];
+        }
+        case "hashCode" -> {
+          return System.identityHashCode(proxy);
+        }
+      }
+      Object result;
+      try {
+        result = method.invoke(connection, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+      return switch (method.getName()) {
+        case "prepareStatement" -> wrapStatement(PreparedStatement.class, result, (String) args[0]);
+        case "prepareCall" -> wrapStatement(CallableStatement.class, result, (String) args[0]);
+        case "createStatement" -> wrapStatement(Statement.class, result, null);
+        default -> result;
+      };
+    }
+
+    private Object wrapStatement(Class<? extends Statement> type, Object statement, String sql) {
+      return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+        new StatementHandler((Statement) statement, sql));
+    }
+  }
+
+  private final class StatementHandler implements InvocationHandler {
+    private final Statement statement;
+    private final String preparedSql; // null for plain statements, which get their SQL per execution
+    private final List<String> parameterTypes = new ArrayList<>();
+
+    private StatementHandler(Statement statement, String preparedSql) {
+      this.statement = statement;
+      this.preparedSql = preparedSql;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String name = method.getName();
+      if (name.startsWith("execute")) {
+        String sql = preparedSql != null ? preparedSql : args != null && args[0] instanceof String s ? s : "(batch)";
+        long start = System.nanoTime();
+        try {
+          return method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+          throw e.getCause();
+        } finally {
+          record(sql, parameterTypes, System.nanoTime() - start);
+          parameterTypes.clear();
+        }
+      }
+      if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+        setParameterType(index, name.substring(3));
+      }
+      try {
+        return method.invoke(statement, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+
+    // e.g. setInt(1, ..) and setString(2, ..) give "Int, String"
+    private void setParameterType(int index, String type) {
+      while (parameterTypes.size() < index) parameterTypes.add("?");
+      parameterTypes.set(index - 1, type);
+    }
+  }
+}
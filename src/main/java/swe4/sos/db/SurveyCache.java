@@ -0,0 +1,93 @@
+package swe4.sos.db;
+
+import swe4.sos.gui.model.AppointmentSurvey;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of hydrated surveys, used by {@link DBRepository#getSurvey(int)}.
+ * Every write invalidates its survey. Open surveys additionally expire after a maximum
+ * age as a safety net for changes made outside the server; closed surveys never expire.
+ * <p>
+ * Loads are stamped with a per-survey generation so that a value read from the database
+ * before a concurrent invalidation is never put into the cache afterwards. Generations are
+ * only kept while a load of the survey is in flight, so they don't outgrow the cache.
+ * Cached surveys are shared and must not be modified.
+ */
+public class SurveyCache {
+
+  public record Statistics(int size, long hits, long misses, long evictions, long invalidations) {
+  }
+
+  private record Entry(AppointmentSurvey survey, long loadedAt) {
+  }
+
+  private static final class Loads {
+    private long generation;
+    private int inFlight;
+  }
+
+  private final int maxSize;
+  private final long maxAgeOpenNanos;
+  private final Map<Integer, Loads> loads = new HashMap<>();
+  private final LinkedHashMap<Integer, Entry> entries;
+
+  private long hits, misses, evictions, invalidations;
+
+  SurveyCache(int maxSize, Duration maxAgeOpen) {
+    this.maxSize = maxSize;
+    this.maxAgeOpenNanos = maxAgeOpen.toNanos();
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+        if (size() > SurveyCache.this.maxSize) {
+          evictions++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  synchronized AppointmentSurvey get(int surveyId) {
+    Entry entry = entries.get(surveyId);
+    if (entry != null && (!entry.survey().isOpen() || System.nanoTime() - entry.loadedAt() < maxAgeOpenNanos)) {
+      hits++;
+      return entry.survey();
+    }
+    if (entry != null) entries.remove(surveyId);
+    misses++;
+    return null;
+  }
+
+  /** Call before loading a survey from the database; pass the result to {@link #endLoad}. */
+  synchronized long beginLoad(int surveyId) {
+    Loads surveyLoads = loads.computeIfAbsent(surveyId, id -> new Loads());
+    surveyLoads.inFlight++;
+    return surveyLoads.generation;
+  }
+
+  /** Call once for every {@link #beginLoad}, with null if the load failed or found nothing. */
+  synchronized void endLoad(int surveyId, AppointmentSurvey survey, long generation) {
+    Loads surveyLoads = loads.get(surveyId);
+    if (surveyLoads == null) return;
+    if (--surveyLoads.inFlight == 0) loads.remove(surveyId);
+    if (survey != null && surveyLoads.generation == generation) {
+      entries.put(surveyId, new Entry(survey, System.nanoTime()));
+    }
+  }
+
+  synchronized void invalidate(int surveyId) {
+    // Without a load in flight there is nothing to fence off; the next load reads the new state
+    Loads surveyLoads = loads.get(surveyId);
+    if (surveyLoads != null) surveyLoads.generation++;
+    if (entries.remove(surveyId) != null) invalidations++;
+  }
+
+  synchronized Statistics getStatistics() {
+    return new Statistics(entries.size(), hits, misses, evictions, invalidations);
+  }
+}
@@ -0,0 +1,148 @@
+package swe4.sos.db;
+
+import swe4.sos.gui.model.User;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of users for {@link DBRepository}, reachable by id, username and email.
+ * Usernames and emails that were not found are remembered for a shorter time, so repeated
+ * lookups of a mistyped address don't reach the database. Keys are compared case-insensitively,
+ * like MySQL's default collation does.
+ * <p>
+ * Loads are stamped with a generation like in {@link SurveyCache}: a lookup that started before
+ * {@link #invalidate} (a user was added) can't store its outdated "not found" afterwards.
+ */
+public class UserCache {
+
+  public record Statistics(int size, int negativeSize, long hits, long negativeHits, long misses, long evictions) {
+  }
+
+  private record Entry(User user, long loadedAt) {
+  }
+
+  private final int maxSize, maxNegativeSize;
+  private final long ttlNanos, negativeTtlNanos;
+  private final LinkedHashMap<Integer, Entry> byId;
+  private final Map<String, Integer> idByUsername = new HashMap<>();
+  private final Map<String, Integer> idByEmail = new HashMap<>();
+  private final LinkedHashMap<String, Long> missing; // "username:..." / "email:..." -> loadedAt
+
+  private long generation;
+  private long hits, negativeHits, misses, evictions;
+
+  UserCache(int maxSize, Duration ttl, int maxNegativeSize, Duration negativeTtl) {
+    this.maxSize = maxSize;
+    this.maxNegativeSize = maxNegativeSize;
+    this.ttlNanos = ttl.toNanos();
+    this.negativeTtlNanos = negativeTtl.toNanos();
+    this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+        if (size() > UserCache.this.maxSize) {
+          unindex(eldest.getValue().user());
+          evictions++;
+          return true;
+        }
+        return false;
+      }
+    };
+    this.missing = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+        return size() > UserCache.this.maxNegativeSize;
+      }
+    };
+  }
+
+  /** Result of a lookup: {@code cached} is false if the database has to be asked. */
+  record Lookup(boolean cached, User user) {
+    static final Lookup MISS = new Lookup(false, null);
+  }
+
+  synchronized Lookup getById(int id) {
+    return lookup(id, null);
+  }
+
+  synchronized Lookup getByUsername(String username) {
+    String key = key(username);
+    return lookup(idByUsername.get(key), "username:" + key);
+  }
+
+  synchronized Lookup getByEmail(String email) {
+    String key = key(email);
+    return lookup(idByEmail.get(key), "email:" + key);
+  }
+
+  private Lookup lookup(Integer id, String missingKey) {
+    long now = System.nanoTime();
+    if (id != null) {
+      Entry entry = byId.get(id);
+      if (entry != null && now - entry.loadedAt() < ttlNanos) {
+        hits++;
+        return new Lookup(true, entry.user());
+      }
+      if (entry != null) remove(id);
+    }
+    if (missingKey != null) {
+      Long loadedAt = missing.get(missingKey);
+      if (loadedAt != null && now - loadedAt < negativeTtlNanos) {
+        negativeHits++;
+        return new Lookup(true, null);
+      }
+      if (loadedAt != null) missing.remove(missingKey);
+    }
+    misses++;
+    return Lookup.MISS;
+  }
+
+  /** Call before reading from the database; pass the result to the put methods. */
+  synchronized long beginLoad() {
+    return generation;
+  }
+
+  synchronized void put(User user, long loadGeneration) {
+    if (user == null || loadGeneration != generation) return;
+    remove(user.getId());
+    byId.put(user.getId(), new Entry(user, System.nanoTime()));
+    idByUsername.put(key(user.getUsername()), user.getId());
+    if (user.getEmail() != null) idByEmail.put(key(user.getEmail()), user.getId());
+  }
+
+  synchronized void putMissingUsername(String username, long loadGeneration) {
+    if (loadGeneration == generation) missing.put("username:" + key(username), System.nanoTime());
+  }
+
+  synchronized void putMissingEmail(String email, long loadGeneration) {
+    if (loadGeneration == generation) missing.put("email:" + key(email), System.nanoTime());
+  }
+
+  /** A user was added: forget that its username and email were unknown. */
+  synchronized void invalidate(String username, String email) {
+    generation++;
+    missing.remove("username:" + key(username));
+    missing.remove("email:" + key(email));
+  }
+
+  synchronized Statistics getStatistics() {
+    return new Statistics(byId.size(), missing.size(), hits, negativeHits, misses, evictions);
+  }
+
+  private void remove(int id) {
+    Entry entry = byId.remove(id);
+    if (entry != null) unindex(entry.user());
+  }
+
+  private void unindex(User user) {
+    idByUsername.remove(key(user.getUsername()), user.getId());
+    if (user.getEmail() != null) idByEmail.remove(key(user.getEmail()), user.getId());
+  }
+
+  private static String key(String value) {
+    return value == null ? "" : value.toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,37 @@
+package swe4.sos.db;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Hands out monotonically increasing change versions for surveys.
+ * Versions are handed out before the writing transaction commits, so a client may only
+ * advance its sync position up to {@link #safeVersion()}: the highest version below which
+ * no write is still in flight. Otherwise a slow transaction with a lower version could
+ * commit after the client already skipped past it.
+ */
+class VersionClock {
+  private final ConcurrentSkipListSet<Long> pending = new ConcurrentSkipListSet<>();
+  private long current;
+
+  VersionClock(long current) {
+    this.current = current;
+  }
+
+  synchronized long begin() {
+    long version = ++current;
+    pending.add(version);
+    return version;
+  }
+
+  void end(long version) {
+    pending.remove(version);
+  }
+
+  synchronized long current() {
+    return current;
+  }
+
+  synchronized long safeVersion() {
+    return pending.isEmpty() ? current : pending.first() - 1;
+  }
+}
@@ -0,0 +1,182 @@
+package swe4.sos.db;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind stage for votes. Commands for the same survey are collected for a short window
+ * and then written by a single {@link BatchWriter} call, i.e. one transaction and one change
+ * notification per window instead of one per voter. A newer command of the same user replaces
+ * the older one, since each command sets the user's complete votes on the survey.
+ * <p>
+ * The futures returned by {@link #submit} complete only after the batch has been committed.
+ * Batches of the same survey are written one after another, so a user's commands keep their order.
+ */
+public class VoteIngestionQueue {
+
+  public record Config(Duration window, int maxBatchSize) {
+    public Config {
+      if (window.isNegative() || maxBatchSize < 1) {
+        throw new IllegalArgumentException("Invalid vote queue config: window=" + window + ", maxBatchSize=" + maxBatchSize);
+      }
+    }
+
+    public static Config defaults() {
+      return new Config(Duration.ofMillis(100), 500);
+    }
+  }
+
+  public record Statistics(int queuedSurveys, int queuedCommands, int maxQueuedCommands,
+                           long submitted, long merged, long batches, long failedBatches) {
+  }
+
+  /** The user's complete votes on a survey; an empty set revokes all of them. */
+  record VoteCommand(Set<Integer> optionIds, Integer preferredOptionId) {
+  }
+
+  @FunctionalInterface
+  interface BatchWriter {
+    // Writes the latest command of each user in one transaction
+    void write(int surveyId, Map<Integer, VoteCommand> commandsByUser) throws Exception;
+  }
+
+  private static class SurveyQueue {
+    Map<Integer, VoteCommand> commands = new LinkedHashMap<>();
+    List<CompletableFuture<Void>> waiting = new ArrayList<>();
+    ScheduledFuture<?> scheduledFlush;
+    boolean flushing;
+  }
+
+  private final Config config;
+  private final BatchWriter writer;
+  private final Map<Integer, SurveyQueue> queues = new HashMap<>();
+  private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "vote-ingestion-timer");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private int queuedCommands, maxQueuedCommands;
+  private long submitted, merged, batches, failedBatches;
+  private boolean stopped;
+
+  VoteIngestionQueue(Config config, BatchWriter writer) {
+    this.config = config;
+    this.writer = writer;
+  }
+
+  synchronized CompletableFuture<Void> submit(int surveyId, int userId, VoteCommand command) {
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    if (stopped) {
+      result.completeExceptionally(new IllegalStateException("Vote queue is shut down"));
+      return result;
+    }
+
+    SurveyQueue queue = queues.computeIfAbsent(surveyId, id -> new SurveyQueue());
+    submitted++;
+    if (queue.commands.put(userId, command) != null) {
+      merged++;
+    } else {
+      queuedCommands++;
+      maxQueuedCommands = Math.max(maxQueuedCommands, queuedCommands);
+    }
+    queue.waiting.add(result);
+
+    if (!queue.flushing) {
+      if (queue.commands.size() >= config.maxBatchSize()) {
+        if (queue.scheduledFlush != null) queue.scheduledFlush.cancel(false);
+        startFlush(surveyId, queue);
+      } else if (queue.scheduledFlush == null) {
+        queue.scheduledFlush = timer.schedule(() -> flushScheduled(surveyId),
+          config.window().toNanos(), TimeUnit.NANOSECONDS);
+      }
+    }
+    return result;
+  }
+
+  private synchronized void flushScheduled(int surveyId) {
+    SurveyQueue queue = queues.get(surveyId);
+    if (queue != null && !queue.flushing && !queue.commands.isEmpty()) {
+      startFlush(surveyId, queue);
+    }
+  }
+
+  // Takes the queued commands (caller holds the lock) and writes them on a virtual thread
+  private void startFlush(int surveyId, SurveyQueue queue) {
+    Map<Integer, VoteCommand> commands = queue.commands;
+    List<CompletableFuture<Void>> waiting = queue.waiting;
+    queue.commands = new LinkedHashMap<>();
+    queue.waiting = new ArrayList<>();
+    queue.scheduledFlush = null;
+    queue.flushing = true;
+    queuedCommands -= commands.size();
+
+    Thread.ofVirtual().name("vote-batch-" + surveyId).start(() -> {
+      Exception failure = null;
+      try {
+        writer.write(surveyId, commands);
+      } catch (Exception e) {
+        failure = e;
+      }
+      finishFlush(surveyId, queue, failure != null);
+      for (CompletableFuture<Void> future : waiting) {
+        if (failure == null) future.complete(null);
+        else future.completeExceptionally(failure);
+      }
+    });
+  }
+
+  private synchronized void finishFlush(int surveyId, SurveyQueue queue, boolean failed) {
+    batches++;
+    if (failed) failedBatches++;
+    queue.flushing = false;
+    if (queue.commands.isEmpty()) {
+      queues.remove(surveyId);
+      notifyAll();
+    } else if (stopped || queue.commands.size() >= config.maxBatchSize()) {
+      startFlush(surveyId, queue);
+    } else {
+      // Commands that arrived during the write start their own window
+      queue.scheduledFlush = timer.schedule(() -> flushScheduled(surveyId),
+        config.window().toNanos(), TimeUnit.NANOSECONDS);
+    }
+  }
+
+  synchronized Statistics getStatistics() {
+    return new Statistics(queues.size(), queuedCommands, maxQueuedCommands, submitted, merged, batches, failedBatches);
+  }
+
+  /** Rejects new commands and writes everything still queued before returning. */
+  void shutdown() {
+    synchronized (this) {
+      stopped = true;
+      queues.forEach((surveyId, queue) -> {
+        if (!queue.flushing && !queue.commands.isEmpty()) {
+          if (queue.scheduledFlush != null) queue.scheduledFlush.cancel(false);
+          startFlush(surveyId, queue);
+        }
+      });
+    }
+    timer.shutdownNow();
+    synchronized (this) {
+      while (!queues.isEmpty()) {
+        try {
+          wait(100);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+}
@@ -7,7 +7,6 @@ import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
 import javafx.util.Duration;
 import swe4.sos.gui.manager.SceneManager;
-import swe4.sos.gui.model.User;
 
 public class AddNewUserController extends Controller {
 
@@ -17,16 +16,6 @@ public class AddNewUserController extends Controller {
   @FXML private TextField emailField;
   @FXML private Label statusLabel;
 
-  private boolean newUserNameIsNotUsed(String username) {
-    User user = null;
-    try {
-      user = repository.getUserByUsername(username);
-    } catch (java.rmi.RemoteException e) {
-      throw new RuntimeException(e);
-    }
-    return (user == null);
-  }
-
   @FXML
   public void initialize() {
   }
@@ -39,24 +28,20 @@ public class AddNewUserController extends Controller {
 
     String confirmPassword = confirmPasswordField.getText();
 
-    if (!username.isBlank() && newUserNameIsNotUsed(username)
+    if (!username.isBlank()
         && !password.isBlank()
         && !email.isBlank()
     ) {
       if (password.equals(confirmPassword)) {
-        statusLabel.setText("Successfully added user");
-        statusLabel.setStyle("-fx-text-fill: green;");
-
-        try {
-          repository.addUser(username, password, email);
-        } catch (java.rmi.RemoteException e) {
-          throw new RuntimeException(e);
-        }
-
-        PauseTransition delay = new PauseTransition(Duration.millis(800));
-        delay.setOnFinished(event -> SceneManager.getInstance().switchTo("/swe4/sos/gui/view/LoginView.fxml"));
-
-        delay.play();
+        // Check and insert in one background call; returns false if the name is taken
+        asyncRepository.submit(repo -> {
+          if (repo.getUserByUsername(username) != null) return false;
+          repo.addUser(username, password, email);
+          return true;
+        }).whenComplete((added, error) -> {
+          if (error != null) handleFailure(error);
+          else showAddResult(added);
+        });
       } else {
         statusLabel.setText("Passwords do not match");
         statusLabel.setStyle("-fx-text-fill: red");
@@ -67,6 +52,21 @@ public class AddNewUserController extends Controller {
     }
   }
 
+  private void showAddResult(boolean added) {
+    if (added) {
+      statusLabel.setText("Successfully added user");
+      statusLabel.setStyle("-fx-text-fill: green;");
+
+      PauseTransition delay = new PauseTransition(Duration.millis(800));
+      delay.setOnFinished(event -> SceneManager.getInstance().switchTo("/swe4/sos/gui/view/LoginView.fxml"));
+
+      delay.play();
+    } else {
+      statusLabel.setText("Make sure all fields are valid");
+      statusLabel.setStyle("-fx-text-fill: red");
+    }
+  }
+
   @FXML
   public void cancelAddNewUser() {
     SceneManager.getInstance().switchTo("/swe4/sos/gui/view/LoginView.fxml");
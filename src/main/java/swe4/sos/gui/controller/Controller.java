@@ -2,17 +2,54 @@ package swe4.sos.gui.controller;
 
 import javafx.application.Platform;
 import javafx.scene.control.Alert;
+import swe4.sos.gui.infrastructure.AsyncRepository;
 import swe4.sos.gui.infrastructure.Repository;
+import swe4.sos.server.client.ChangeEvent;
+import swe4.sos.server.client.ClientCallback;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CompletionException;
 
 public abstract class Controller {
   protected static Repository repository;
+  protected static AsyncRepository asyncRepository; // use this from the FX thread, it doesn't block
+  private static ClientCallback clientCallback;
   private static final List<Controller> activeControllers = new ArrayList<>();
 
   public static void setRepository(Repository repository) {
     Controller.repository = repository;
+    Controller.asyncRepository = new AsyncRepository(repository);
+  }
+
+  // Only set when running as RMI client; without it no change events are received
+  public static void setClientCallback(ClientCallback clientCallback) {
+    Controller.clientCallback = clientCallback;
+  }
+
+  // In order, so a logout followed by a login can't remove the new subscription
+  protected static void subscribeToChanges(int userId) {
+    if (clientCallback == null) return;
+    asyncRepository.submitInOrder(clientCallback, repo -> {
+      repo.addObserver(clientCallback, userId);
+      return null;
+    }).exceptionally(Controller::printFailure);
+  }
+
+  protected static void unsubscribeFromChanges() {
+    if (clientCallback == null) return;
+    asyncRepository.submitInOrder(clientCallback, repo -> {
+      repo.removeObserver(clientCallback);
+      return null;
+    }).exceptionally(Controller::printFailure);
+  }
+
+  private static Void printFailure(Throwable error) {
+    error.printStackTrace();
+    return null;
   }
 
   public static void refreshAllViews() {
@@ -32,6 +69,26 @@ public abstract class Controller {
   // To be overridden by concrete controllers
   public abstract void refreshData();
 
+  // Called with the events merged over a short window; completes once the view is refreshed.
+  // Reloads the whole view once unless overridden
+  public CompletionStage<?> onChanges(List<ChangeEvent> events) {
+    refreshData();
+    return CompletableFuture.completedFuture(null);
+  }
+
+  // For failed background calls; superseded ones were cancelled on purpose and are ignored
+  protected void handleFailure(Throwable error) {
+    if (isCancellation(error)) return;
+    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    cause.printStackTrace();
+    showAlert("Connection Error", "The server request failed:\n" + cause.getMessage());
+  }
+
+  protected static boolean isCancellation(Throwable error) {
+    return error instanceof CancellationException
+      || error instanceof CompletionException && error.getCause() instanceof CancellationException;
+  }
+
   protected void showAlert(String title, String message) {
     Alert alert = new Alert(Alert.AlertType.ERROR);
     alert.setTitle(title);
@@ -65,23 +65,26 @@ public class CreateSurveyController extends Controller {
       return;
     }
 
-    try {
-      // Convert LocalDateTime list to SurveyOption list
-      List<SurveyOption> surveyOptions = new ArrayList<>();
-      int optionId = 1; // Starting ID for new options
-      for (LocalDateTime time : timeOptions) {
-        surveyOptions.add(new SurveyOption(optionId++, time));
-      }
-
-      // Create survey with the current user as owner
-      int userId = AuthenticationService.getCurrentUserId();
-      repository.addSurvey(userId, title, description, surveyOptions);
+    // Convert LocalDateTime list to SurveyOption list
+    List<SurveyOption> surveyOptions = new ArrayList<>();
+    int optionId = 1; // Starting ID for new options
+    for (LocalDateTime time : timeOptions) {
+      surveyOptions.add(new SurveyOption(optionId++, time));
+    }
 
+    // Create survey with the current user as owner
+    int userId = AuthenticationService.getCurrentUserId();
+    asyncRepository.submit(repo -> {
+      repo.addSurvey(userId, title, description, surveyOptions);
+      return null;
+    }).whenComplete((ignored, error) -> {
+      if (error != null) {
+        handleFailure(error);
+        return;
+      }
       showInfoAlert("Success", "Survey created successfully");
       SceneManager.getInstance().switchTo("/swe4/sos/gui/view/DashboardView.fxml");
-    } catch (Exception e) {
-      showAlert("Error", "Failed to create survey: " + e.getMessage());
-    }
+    });
   }
 
   @FXML
@@ -9,23 +9,31 @@ import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import swe4.sos.gui.infrastructure.AuthenticationService;
+import swe4.sos.gui.infrastructure.SurveyReplica;
 import swe4.sos.gui.manager.SceneManager;
 import swe4.sos.gui.model.AppointmentSurvey;
+import swe4.sos.gui.model.SurveyChanges;
+import swe4.sos.gui.model.SurveySummary;
+import swe4.sos.server.client.ChangeEvent;
 
-import java.rmi.RemoteException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 public class DashboardController extends Controller {
 
   @FXML private TextField mySurveysFilter;
   @FXML private TextField invitationsFilter;
   @FXML private CheckBox personalOnlyCheckbox;
-  @FXML private ListView<AppointmentSurvey> listViewOne;
-  @FXML private ListView<AppointmentSurvey> listViewTwo;
+  @FXML private ListView<SurveySummary> listViewOne;
+  @FXML private ListView<SurveySummary> listViewTwo;
 
-  private final ObservableList<AppointmentSurvey> participatedSurveys = FXCollections.observableArrayList();
-  private final ObservableList<AppointmentSurvey> invitedSurveys = FXCollections.observableArrayList();
-  private final FilteredList<AppointmentSurvey> filteredParticipated = new FilteredList<>(participatedSurveys);
-  private final FilteredList<AppointmentSurvey> filteredInvited = new FilteredList<>(invitedSurveys);
+  private final ObservableList<SurveySummary> participatedSurveys = FXCollections.observableArrayList();
+  private final ObservableList<SurveySummary> invitedSurveys = FXCollections.observableArrayList();
+  private final FilteredList<SurveySummary> filteredParticipated = new FilteredList<>(participatedSurveys);
+  private final FilteredList<SurveySummary> filteredInvited = new FilteredList<>(invitedSurveys);
+  private final Object syncKey = new Object();
+  private boolean missedChanges; // a superseded sync updated the replica, but not the lists
 
   @FXML
   public void initialize() {
@@ -62,22 +70,22 @@ public class DashboardController extends Controller {
     filteredInvited.setPredicate(this::matchesInvitationsFilter);
   }
 
-  private boolean matchesMySurveysFilter(AppointmentSurvey survey) {
+  private boolean matchesMySurveysFilter(SurveySummary survey) {
     String filter = mySurveysFilter.getText().trim().toLowerCase();
     return survey.getLabel().toLowerCase().contains(filter) ||
       survey.getDescription().toLowerCase().contains(filter);
   }
 
-  private boolean matchesInvitationsFilter(AppointmentSurvey survey) {
+  private boolean matchesInvitationsFilter(SurveySummary survey) {
     String filter = invitationsFilter.getText().trim().toLowerCase();
     return survey.getLabel().toLowerCase().contains(filter) ||
       survey.getDescription().toLowerCase().contains(filter);
   }
 
-  private ListCell<AppointmentSurvey> createParticipatedSurveyCell() {
+  private ListCell<SurveySummary> createParticipatedSurveyCell() {
     return new ListCell<>() {
       @Override
-      protected void updateItem(AppointmentSurvey survey, boolean empty) {
+      protected void updateItem(SurveySummary survey, boolean empty) {
         super.updateItem(survey, empty);
         if (empty || survey == null) {
           setText(null);
@@ -96,7 +104,7 @@ public class DashboardController extends Controller {
             ? "-fx-text-fill: green; -fx-font-weight: bold;"
             : "-fx-text-fill: red; -fx-font-weight: bold;");
 
-          Label participants = new Label("Participants: " + survey.getParticipantUserIds().size());
+          Label participants = new Label("Participants: " + survey.getParticipantCount());
 
           vbox.getChildren().addAll(titleLabel, statusLabel, participants);
           hbox.getChildren().add(vbox);
@@ -112,7 +120,7 @@ public class DashboardController extends Controller {
     };
   }
 
-  private ListCell<AppointmentSurvey> createInvitedSurveyCell() {
+  private ListCell<SurveySummary> createInvitedSurveyCell() {
     return new ListCell<>() {
       private final Button acceptButton = new Button("Accept");
       private final Button declineButton = new Button("Decline");
@@ -126,7 +134,7 @@ public class DashboardController extends Controller {
       }
 
       @Override
-      protected void updateItem(AppointmentSurvey survey, boolean empty) {
+      protected void updateItem(SurveySummary survey, boolean empty) {
         super.updateItem(survey, empty);
         if (empty || survey == null) {
           setText(null);
@@ -145,7 +153,7 @@ public class DashboardController extends Controller {
             ? "-fx-text-fill: green; -fx-font-weight: bold;"
             : "-fx-text-fill: red; -fx-font-weight: bold;");
 
-          Label participants = new Label("Participants: " + survey.getParticipantUserIds().size());
+          Label participants = new Label("Participants: " + survey.getParticipantCount());
 
           vbox.getChildren().addAll(titleLabel, statusLabel, participants);
 
@@ -159,29 +167,27 @@ public class DashboardController extends Controller {
     };
   }
 
-  private void handleAcceptInvitation(AppointmentSurvey survey) {
-    try {
-      repository.participateInSurvey(survey.getJoinKey(), AuthenticationService.getCurrentUserId());
-      refreshData();
-    } catch (RemoteException e) {
-      e.printStackTrace();
-      // Handle gracefully
-    }
+  private void handleAcceptInvitation(SurveySummary survey) {
+    int userId = AuthenticationService.getCurrentUserId();
+    asyncRepository.submit(repo -> repo.participateInSurvey(survey.getJoinKey(), userId))
+      .whenComplete((joined, error) -> {
+        if (error != null) handleFailure(error);
+        else syncChanges();
+      });
   }
 
-  private void handleDeclineInvitation(AppointmentSurvey survey) {
-    try {
-      repository.declineSurvey(survey.getJoinKey(), AuthenticationService.getCurrentUserId());
-      refreshData();
-    } catch (RemoteException e) {
-      e.printStackTrace();
-      // Handle gracefully
-    }
+  private void handleDeclineInvitation(SurveySummary survey) {
+    int userId = AuthenticationService.getCurrentUserId();
+    asyncRepository.submit(repo -> repo.declineSurvey(survey.getJoinKey(), userId))
+      .whenComplete((declined, error) -> {
+        if (error != null) handleFailure(error);
+        else syncChanges();
+      });
   }
 
 
   @FXML
-  private void handleOpenSurvey(AppointmentSurvey survey) {
+  private void handleOpenSurvey(SurveySummary survey) {
     try {
       SurveyController controller = SceneManager.getInstance()
         .switchToWithController("/swe4/sos/gui/view/SurveyView.fxml");
@@ -203,22 +209,87 @@ public class DashboardController extends Controller {
     updateFilters();
   }
 
-  private void loadData(int userId) {
-    try {
-      participatedSurveys.setAll(repository.getParticipatedSurveys(userId));
-    } catch (RemoteException e) {
-      throw new RuntimeException(e);
+  // One sync covers any number of events
+  @Override
+  public CompletionStage<?> onChanges(List<ChangeEvent> events) {
+    int userId = AuthenticationService.getCurrentUserId();
+    if (events.stream().anyMatch(event -> event.type() == ChangeEvent.Type.RESYNC)) {
+      return sync(userId, true);
     }
-    try {
-      invitedSurveys.setAll(repository.getInvitedSurveys(userId));
-    } catch (RemoteException e) {
-      throw new RuntimeException(e);
+    if (events.stream().allMatch(event -> event.type() == ChangeEvent.Type.USER_ADDED)) {
+      return CompletableFuture.completedFuture(null); // users are not shown on the dashboard
     }
+    return sync(userId, false);
+  }
+
+  // Fetches only what changed since the last sync and patches the affected list items
+  private void syncChanges() {
+    sync(AuthenticationService.getCurrentUserId(), false);
+  }
+
+  // Syncs the replica in the background; a newer sync supersedes one still running
+  private CompletableFuture<?> sync(int userId, boolean reload) {
+    SurveyReplica replica = SurveyReplica.getInstance();
+    DashboardLoadEvent event = new DashboardLoadEvent();
+    event.begin();
+    return asyncRepository.submitLatest(syncKey, repo -> replica.sync(repo, userId))
+      .whenComplete((changes, error) -> {
+        event.reload = reload || changes == null || missedChanges;
+        if (isCancellation(error)) {
+          missedChanges = true;
+          event.outcome = "superseded";
+        } else if (error != null) {
+          handleFailure(error);
+          event.outcome = "failed";
+        } else if (event.reload) {
+          missedChanges = false;
+          participatedSurveys.setAll(replica.getParticipatedSurveys());
+          invitedSurveys.setAll(replica.getInvitedSurveys());
+          event.outcome = "loaded";
+        } else {
+          applyChanges(userId, changes);
+          event.outcome = "patched";
+        }
+        event.userId = userId;
+        event.participated = participatedSurveys.size();
+        event.invited = invitedSurveys.size();
+        event.commit();
+      });
+  }
+
+  private void applyChanges(int userId, SurveyChanges changes) {
+    for (Integer surveyId : changes.removedSurveyIds()) {
+      replaceSurvey(participatedSurveys, surveyId, null);
+      replaceSurvey(invitedSurveys, surveyId, null);
+    }
+    for (AppointmentSurvey upserted : changes.upserted()) {
+      SurveySummary summary = SurveySummary.of(upserted);
+      replaceSurvey(participatedSurveys, upserted.getId(), SurveyReplica.isParticipated(upserted, userId) ? summary : null);
+      replaceSurvey(invitedSurveys, upserted.getId(), SurveyReplica.isInvited(upserted, userId) ? summary : null);
+    }
+  }
+
+  // Replaces the survey with the given id in place, adds it if missing, or removes it if survey is null
+  private void replaceSurvey(ObservableList<SurveySummary> surveys, int surveyId, SurveySummary survey) {
+    for (int i = 0; i < surveys.size(); i++) {
+      if (surveys.get(i).getId() == surveyId) {
+        if (survey != null) surveys.set(i, survey);
+        else surveys.remove(i);
+        return;
+      }
+    }
+    if (survey != null) surveys.add(survey);
+  }
+
+  private void loadData(int userId) {
+    sync(userId, true);
   }
 
   @FXML
   private void handleLogout() {
+    unsubscribeFromChanges();
     AuthenticationService.clear();
+    SurveyReplica.getInstance().clear();
     participatedSurveys.clear();
     invitedSurveys.clear();
     SceneManager.getInstance().switchTo("/swe4/sos/gui/view/LoginView.fxml");
@@ -0,0 +1,29 @@
+package swe4.sos.gui.controller;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("swe4.sos.DashboardLoad")
+@Label("Dashboard Load")
+@Category({"SOS", "Client"})
+@Description("Synchronizing the dashboard with the server until its lists are updated")
+class DashboardLoadEvent extends Event {
+  @Label("User Id")
+  int userId;
+
+  @Label("Reload")
+  @Description("Whether the lists were rebuilt instead of patched")
+  boolean reload;
+
+  @Label("Participated Surveys")
+  int participated;
+
+  @Label("Invited Surveys")
+  int invited;
+
+  @Label("Outcome")
+  String outcome;
+}
@@ -3,11 +3,12 @@ package swe4.sos.gui.controller;
 import javafx.fxml.FXML;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
+import swe4.sos.gui.infrastructure.RepositoryCommands;
 import swe4.sos.gui.manager.SceneManager;
 import swe4.sos.gui.model.AppointmentSurvey;
 import swe4.sos.gui.model.User;
 
-import java.rmi.RemoteException;
+import java.util.List;
 
 public class InviteUserPopupController extends Controller {
   @FXML
@@ -26,25 +27,29 @@ public class InviteUserPopupController extends Controller {
   }
 
   @FXML
-  public void handleSubmit() throws RemoteException {
+  public void handleSubmit() {
     if (emailField.getText().isEmpty()) {
       showAlert("Error", "Email field is empty!");
-    } else {
-      String email = emailField.getText();
-      User user = null;
-      try {
-        user = repository.getUserByEmail(email);
-      } catch (RemoteException e) {
-        throw new RuntimeException(e);
-      }
-      if (user == null) showAlert("Error", "User not found!");
-      else {
-        currentSurvey.inviteUser(user.getId());
-        repository.updateSurvey(currentSurvey);
-        showInfoAlert("Success", "User invited successfully");
-        ((Stage) emailField.getScene().getWindow()).close();
-        SceneManager.getInstance().refreshCurrentView();
-      }
+      return;
+    }
+    String email = emailField.getText();
+    int surveyId = currentSurvey.getId();
+    // Lookup and invitation in one round trip
+    asyncRepository.submit(repo -> (User) repo.executeBatch(
+        List.of(new RepositoryCommands.InviteUserByEmail(surveyId, email)), true).getFirst())
+      .whenComplete((user, error) -> {
+        if (error != null) handleFailure(error);
+        else showInviteResult(user);
+      });
+  }
+
+  private void showInviteResult(User user) {
+    if (user == null) showAlert("Error", "User not found!");
+    else {
+      currentSurvey.inviteUser(user.getId());
+      showInfoAlert("Success", "User invited successfully");
+      ((Stage) emailField.getScene().getWindow()).close();
+      SceneManager.getInstance().refreshCurrentView();
     }
   }
 
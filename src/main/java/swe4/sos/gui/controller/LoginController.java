@@ -16,16 +16,6 @@ public class LoginController extends Controller {
   @FXML private PasswordField passwordField;
   @FXML private Label statusLabel;
 
-  private User getUserIfDataIsValid(String username, String password) {
-    User user = null;
-    try {
-      user = repository.getUserByUsername(username);
-    } catch (java.rmi.RemoteException e) {
-      throw new RuntimeException(e);
-    }
-    if (!(user == null || !user.getPassword().equals(password))) return user; else return null;
-  }
-
   @FXML
   public void initialize() {
   }
@@ -35,8 +25,15 @@ public class LoginController extends Controller {
     String username = usernameField.getText();
     String password = passwordField.getText();
 
-    User user = getUserIfDataIsValid(username, password);
+    // The password is checked on the server; users sent to clients don't carry it
+    asyncRepository.submitLatest(this, repo -> repo.authenticate(username, password))
+      .whenComplete((user, error) -> {
+        if (error != null) handleFailure(error);
+        else showLoginResult(user);
+      });
+  }
 
+  private void showLoginResult(User user) {
     if (user != null) {
 
       statusLabel.setText("Login Successful");
@@ -45,6 +42,7 @@ public class LoginController extends Controller {
       PauseTransition delay = new PauseTransition(Duration.millis(800));
       delay.setOnFinished(event -> {
         AuthenticationService.setCurrentUser(user);
+        subscribeToChanges(user.getId());
         SceneManager.getInstance().switchTo("/swe4/sos/gui/view/DashboardView.fxml");
       });
 
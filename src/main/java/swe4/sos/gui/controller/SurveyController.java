@@ -9,15 +9,21 @@ import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import swe4.sos.gui.infrastructure.AuthenticationService;
+import swe4.sos.gui.infrastructure.SurveyReplica;
 import swe4.sos.gui.manager.SceneManager;
 import swe4.sos.gui.model.AppointmentSurvey;
 import swe4.sos.gui.model.SurveyOption;
+import swe4.sos.server.client.ChangeEvent;
 
-import java.rmi.RemoteException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
 
 
 public class SurveyController extends Controller {
@@ -35,17 +41,35 @@ public class SurveyController extends Controller {
   private int currentUserId;
   private final ObservableSet<SurveyOption> selectedOptions = FXCollections.observableSet(new HashSet<>());
   private SurveyOption preferredOption;
+  private final Object refreshKey = new Object();
+  private final Object writeKey = new Object();
 
   @FXML
   public void initialize() {
   }
 
   public void initializeSurvey(int surveyId) {
-    try {
-      currentSurvey = repository.getSurvey(surveyId);
-    } catch (RemoteException e) {
-      throw new RuntimeException(e);
+    // The dashboard only holds summaries; full surveys are fetched once and then kept current by deltas
+    SurveyReplica replica = SurveyReplica.getInstance();
+    AppointmentSurvey survey = replica.getSurvey(surveyId);
+    if (survey != null) {
+      showSurvey(survey);
+      return;
     }
+    asyncRepository.submitLatest(refreshKey, repo -> {
+      AppointmentSurvey loaded = repo.getSurvey(surveyId);
+      replica.rememberSurvey(loaded);
+      return loaded;
+    }).whenComplete((loaded, error) -> {
+      if (error != null) handleFailure(error);
+      else if (loaded == null) showRemoved();
+      else showSurvey(loaded);
+    });
+  }
+
+  // The view votes and closes on its own copy, so the replica only ever holds what the server recorded
+  private void showSurvey(AppointmentSurvey survey) {
+    currentSurvey = survey.copy();
     currentUserId = AuthenticationService.getCurrentUserId();
 
     // Show close button only for owner
@@ -94,41 +118,68 @@ public class SurveyController extends Controller {
 
   @Override
   public void refreshData() {
-    try {
-      if (currentSurvey != null) {
+    refresh();
+  }
 
-        ScrollPane scrollPane = (ScrollPane) optionsList.lookup(".scroll-pane");
-        double scrollPosition = (scrollPane != null) ? scrollPane.getVvalue() : 0.0;
+  private CompletableFuture<?> refresh() {
+    if (currentSurvey == null) return CompletableFuture.completedFuture(null);
+
+    ScrollPane scrollPane = (ScrollPane) optionsList.lookup(".scroll-pane");
+    double scrollPosition = (scrollPane != null) ? scrollPane.getVvalue() : 0.0;
+
+    int surveyId = currentSurvey.getId();
+    int userId = AuthenticationService.getCurrentUserId();
+    SurveyReplica replica = SurveyReplica.getInstance();
+    return asyncRepository.submitLatest(refreshKey, repo -> {
+      replica.sync(repo, userId);
+      AppointmentSurvey updatedSurvey = replica.getSurvey(surveyId);
+      if (updatedSurvey == null && replica.getSummary(surveyId) != null) {
+        // The replica was reloaded from summaries, the survey itself still exists
+        updatedSurvey = repo.getSurvey(surveyId);
+        replica.rememberSurvey(updatedSurvey);
+      }
+      return updatedSurvey;
+    }).whenComplete((updatedSurvey, error) -> {
+      if (error != null) {
+        handleFailure(error);
+        return;
+      }
+      if (updatedSurvey == null) {
+        showRemoved();
+        return;
+      }
 
-        AppointmentSurvey updatedSurvey = repository.getSurvey(currentSurvey.getId());
+      currentSurvey = updatedSurvey.copy();
+      currentUserId = userId;
 
-        if (updatedSurvey == null) {
-          // Survey was deleted - return to dashboard
-          SceneManager.getInstance().switchTo("/swe4/sos/gui/view/DashboardView.fxml");
-          showInfoAlert("Survey Closed", "This survey has been removed");
-          return;
-        }
+      initializeUI();
 
-        currentSurvey = updatedSurvey;
-        currentUserId = AuthenticationService.getCurrentUserId();
+      selectedOptions.clear();
+      preferredOption = null;
 
-        initializeUI();
+      Platform.runLater(() -> optionsList.scrollTo((int)scrollPosition));
 
-        selectedOptions.clear();
-        preferredOption = null;
+      hasVoted = currentSurvey.getOptions().stream()
+        .anyMatch(option -> option.hasVoted(currentUserId));
 
-        Platform.runLater(() -> optionsList.scrollTo((int)scrollPosition));
+      updateButtonStates();
+      optionsList.refresh();
+    });
+  }
 
-        hasVoted = currentSurvey.getOptions().stream()
-          .anyMatch(option -> option.hasVoted(currentUserId));
+  // Survey was deleted - return to dashboard
+  private void showRemoved() {
+    SceneManager.getInstance().switchTo("/swe4/sos/gui/view/DashboardView.fxml");
+    showInfoAlert("Survey Closed", "This survey has been removed");
+  }
 
-        updateButtonStates();
-        optionsList.refresh();
-      }
-    } catch (RemoteException e) {
-      showAlert("Connection Error",
-        "Failed to refresh survey data:\n" + e.getMessage());
+  @Override
+  public CompletionStage<?> onChanges(List<ChangeEvent> events) {
+    // Changes to other surveys don't affect this view
+    if (currentSurvey != null && events.stream().anyMatch(event -> event.concernsSurvey(currentSurvey.getId()))) {
+      return refresh();
     }
+    return CompletableFuture.completedFuture(null);
   }
 
   private class SurveyOptionCell extends ListCell<SurveyOption> {
@@ -256,11 +307,12 @@ public class SurveyController extends Controller {
     // Force refresh of all options while maintaining sort order
     ObservableList<SurveyOption> options = FXCollections.observableArrayList(currentSurvey.getOptions());
     optionsList.setItems(options);
-    try {
-      repository.updateSurvey(currentSurvey);
-    } catch (RemoteException e) {
-      throw new RuntimeException(e);
-    }
+    int surveyId = currentSurvey.getId();
+    int userId = currentUserId;
+    asyncRepository.submitInOrder(writeKey, repo -> {
+      repo.revokeVotes(surveyId, userId);
+      return null;
+    }).exceptionally(this::reportFailure);
     updateButtonStates();
     optionsList.refresh();
   }
@@ -281,11 +333,16 @@ public class SurveyController extends Controller {
       }
 
       // Persist changes
-      try {
-        repository.updateSurvey(currentSurvey);
-      } catch (RemoteException e) {
-        throw new RuntimeException(e);
-      }
+      Set<Integer> optionIds = selectedOptions.stream()
+        .map(SurveyOption::getId)
+        .collect(Collectors.toSet());
+      Integer preferredOptionId = preferredOption != null ? preferredOption.getId() : null;
+      int surveyId = currentSurvey.getId();
+      int userId = currentUserId;
+      asyncRepository.submitInOrder(writeKey, repo -> {
+        repo.castVotes(surveyId, userId, optionIds, preferredOptionId);
+        return null;
+      }).exceptionally(this::reportFailure);
 
       // Reset UI state
       selectedOptions.clear();
@@ -297,6 +354,13 @@ public class SurveyController extends Controller {
     }
   }
 
+  // Only the view's copy was updated; the refresh replaces it with the replica's survey
+  private Void reportFailure(Throwable error) {
+    handleFailure(error);
+    refreshData();
+    return null;
+  }
+
   @FXML
   private void handleBack() {
     SceneManager.getInstance().switchTo("/swe4/sos/gui/view/DashboardView.fxml");
@@ -319,18 +383,21 @@ public class SurveyController extends Controller {
 
     Optional<ButtonType> result = confirmation.showAndWait();
     if (result.isPresent() && result.get() == ButtonType.OK) {
-      currentSurvey.close();
-      try {
-        repository.updateSurvey(currentSurvey);
-      } catch (RemoteException e) {
-        throw new RuntimeException(e);
-      }
-
-      // Immediately update UI
-      updateButtonStates();
-      optionsList.refresh();
+      int surveyId = currentSurvey.getId();
+      asyncRepository.submitInOrder(writeKey, repo -> {
+        repo.closeSurvey(surveyId);
+        return null;
+      }).whenComplete((ignored, error) -> {
+        if (error != null) {
+          reportFailure(error);
+          return;
+        }
+        currentSurvey.close();
+        updateButtonStates();
+        optionsList.refresh();
 
-      new Alert(Alert.AlertType.INFORMATION, "Survey closed successfully").show();
+        new Alert(Alert.AlertType.INFORMATION, "Survey closed successfully").show();
+      });
     }
   }
 }
\ No newline at end of file
@@ -22,20 +22,18 @@ public class SurveyPopupController extends Controller {
 
   @FXML
   private void handleParticipate() {
-    try {
-       String keyJoin = surveyIdField.getText();
-      boolean success = repository.participateInSurvey(keyJoin, AuthenticationService.getCurrentUserId());
-      if (success) {
-        ((Stage) surveyIdField.getScene().getWindow()).close();
-        SceneManager.getInstance().refreshCurrentView();  // refresh the dashboard view
-      } else {
-        surveyIdField.setStyle("-fx-border-color: red;");
-      }
-    } catch (NumberFormatException e) {
-      surveyIdField.setStyle("-fx-border-color: red;");
-    } catch (java.rmi.RemoteException e) {
-      throw new RuntimeException(e);
-    }
+    String keyJoin = surveyIdField.getText();
+    int userId = AuthenticationService.getCurrentUserId();
+    asyncRepository.submit(repo -> repo.participateInSurvey(keyJoin, userId))
+      .whenComplete((success, error) -> {
+        if (error != null) handleFailure(error);
+        else if (success) {
+          ((Stage) surveyIdField.getScene().getWindow()).close();
+          SceneManager.getInstance().refreshCurrentView();  // refresh the dashboard view
+        } else {
+          surveyIdField.setStyle("-fx-border-color: red;");
+        }
+      });
   }
 
   @Override
@@ -0,0 +1,98 @@
+package swe4.sos.gui.infrastructure;
+
+import javafx.application.Platform;
+
+import java.rmi.RemoteException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs blocking {@link Repository} calls on virtual threads so the JavaFX application thread
+ * never waits for the network or the database. The returned futures complete on the FX thread,
+ * so their callbacks may touch the UI directly.
+ * <p>
+ * {@link #submitLatest} supersedes the previous call with the same key, e.g. an older refresh of
+ * a view: its future is cancelled and its result dropped. The call itself still finishes, since
+ * an RMI request can't be taken back once sent. {@link #submitInOrder} runs calls with the same
+ * key one after another, for writes whose order matters.
+ */
+public class AsyncRepository {
+
+  @FunctionalInterface
+  public interface Call<T> {
+    T call(Repository repository) throws RemoteException;
+  }
+
+  private final Repository repository;
+  private final Executor resultExecutor;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final Map<Object, CompletableFuture<?>> latest = new HashMap<>();
+  private final Map<Object, CompletableFuture<?>> tails = new HashMap<>();
+
+  public AsyncRepository(Repository repository) {
+    this(repository, Platform::runLater);
+  }
+
+  // resultExecutor is where futures complete; the FX thread unless running without a UI
+  public AsyncRepository(Repository repository, Executor resultExecutor) {
+    this.repository = repository;
+    this.resultExecutor = resultExecutor;
+  }
+
+  public Repository getRepository() {
+    return repository;
+  }
+
+  public <T> CompletableFuture<T> submit(Call<T> call) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    run(call, result);
+    return result;
+  }
+
+  /** Cancels the pending call with the same key, if any, and submits this one. */
+  public synchronized <T> CompletableFuture<T> submitLatest(Object key, Call<T> call) {
+    CompletableFuture<?> previous = latest.get(key);
+    if (previous != null) previous.cancel(false);
+
+    CompletableFuture<T> result = submit(call);
+    latest.put(key, result);
+    result.whenComplete((value, error) -> forget(latest, key, result));
+    return result;
+  }
+
+  /** Starts the call once the previous call with the same key has completed, successfully or not. */
+  public synchronized <T> CompletableFuture<T> submitInOrder(Object key, Call<T> call) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    CompletableFuture<?> previous = tails.get(key);
+    if (previous == null) run(call, result);
+    else previous.whenComplete((value, error) -> run(call, result));
+
+    tails.put(key, result);
+    result.whenComplete((value, error) -> forget(tails, key, result));
+    return result;
+  }
+
+  private <T> void run(Call<T> call, CompletableFuture<T> result) {
+    executor.execute(() -> {
+      if (result.isDone()) return; // cancelled before it started
+      try {
+        T value = call.call(repository);
+        resultExecutor.execute(() -> result.complete(value));
+      } catch (Throwable e) {
+        resultExecutor.execute(() -> result.completeExceptionally(e));
+      }
+    });
+  }
+
+  private synchronized void forget(Map<Object, CompletableFuture<?>> futures, Object key, CompletableFuture<?> future) {
+    futures.remove(key, future);
+  }
+
+  public void shutdown() {
+    executor.shutdown();
+  }
+}
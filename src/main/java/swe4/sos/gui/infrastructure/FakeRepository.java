@@ -1,26 +1,46 @@
 package swe4.sos.gui.infrastructure;
 
 import swe4.sos.gui.model.AppointmentSurvey;
+import swe4.sos.gui.model.SurveyChanges;
+import swe4.sos.gui.model.SurveyCursor;
 import swe4.sos.gui.model.SurveyOption;
+import swe4.sos.gui.model.SurveyPage;
+import swe4.sos.gui.model.SurveyPageRequest;
+import swe4.sos.gui.model.SurveySummary;
 import swe4.sos.gui.model.User;
+import swe4.sos.server.client.ChangeEvent;
 import swe4.sos.server.client.ClientCallback;
+import swe4.sos.server.server.NotificationDispatcher;
 
 import java.rmi.RemoteException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 public class FakeRepository implements Repository {
   private static FakeRepository instance;
-  private final List<ClientCallback> observers = new ArrayList<>();
+  private final NotificationDispatcher notificationDispatcher = new NotificationDispatcher();
 
   private int userId = 1;
   private int surveyId = 1;
   private final List<UserData> users = new ArrayList<>();
   private final Map<Integer, AppointmentSurvey> surveysById = new HashMap<>();
   private final Map<String, AppointmentSurvey>  surveysByJoinKey = new HashMap<>();
+  private final Map<Integer, Map<Integer, Long>> removalsByUser = new HashMap<>(); // user -> survey -> version
+  private final AtomicLong changeVersion = new AtomicLong();
+
+  // Secondary indexes user -> survey ids, and the reverse to update them, kept current by reindex()
+  private final Map<Integer, Set<Integer>> surveyIdsByParticipant = new HashMap<>();
+  private final Map<Integer, Set<Integer>> surveyIdsByInvitee = new HashMap<>();
+  private final Map<Integer, Set<Integer>> participantsBySurvey = new HashMap<>();
+  private final Map<Integer, Set<Integer>> inviteesBySurvey = new HashMap<>();
 
   private FakeRepository() {
     // mock users
@@ -58,12 +78,7 @@ public class FakeRepository implements Repository {
     } catch (RemoteException e) {
       throw new RuntimeException(e);
     }
-    AppointmentSurvey teamMeeting = null;
-    try {
-      teamMeeting = getSurvey(1);
-    } catch (RemoteException e) {
-      throw new RuntimeException(e);
-    }
+    AppointmentSurvey teamMeeting = surveysById.get(1);
 
     // Clear auto-invites and add original invites
     teamMeeting.getInvitedUserIds().clear();
@@ -88,12 +103,7 @@ public class FakeRepository implements Repository {
     } catch (RemoteException e) {
       throw new RuntimeException(e);
     }
-    AppointmentSurvey projectReview = null;
-    try {
-      projectReview = getSurvey(2);
-    } catch (RemoteException e) {
-      throw new RuntimeException(e);
-    }
+    AppointmentSurvey projectReview = surveysById.get(2);
     projectReview.join(2);  // Creator participates
 
     // Add options
@@ -104,27 +114,112 @@ public class FakeRepository implements Repository {
     SurveyOption option4 = new SurveyOption(4, LocalDateTime.now().plusDays(2).withHour(15));
     option4.vote(2);
     projectReview.addOption(option4);
+
+    // The mock surveys were modified directly, bypassing the write methods
+    reindex(teamMeeting);
+    reindex(projectReview);
   }
 
   @Override
-  public synchronized void addObserver(ClientCallback observer) throws RemoteException {
-    observers.add(observer);
+  public void addObserver(ClientCallback observer) throws RemoteException {
+    notificationDispatcher.addObserver(observer);
   }
 
   @Override
-  public synchronized void removeObserver(ClientCallback observer) throws RemoteException {
-    observers.remove(observer);
+  public void removeObserver(ClientCallback observer) throws RemoteException {
+    notificationDispatcher.removeObserver(observer);
   }
 
-  protected synchronized void notifyObservers() {
-    observers.forEach(observer -> {
-      try {
-        observer.notifyChange();
-      } catch (RemoteException e) {
-        // Remove stale observers (e.g., disconnected clients)
-        observers.remove(observer);
-      }
-    });
+  @Override
+  public void addObserver(ClientCallback observer, int userId) throws RemoteException {
+    notificationDispatcher.addObserver(observer, userId);
+  }
+
+  // Runs under the lock so no other call interleaves; there is no rollback, a failing
+  // command leaves the writes of the commands before it in place
+  @Override
+  public synchronized List<Object> executeBatch(List<RepositoryCommand<?>> commands, boolean transactional)
+    throws RemoteException {
+    List<Object> results = new ArrayList<>(commands.size());
+    for (RepositoryCommand<?> command : commands) {
+      results.add(command.execute(this));
+    }
+    return results;
+  }
+
+  protected long notifyObservers(ChangeEvent.Type type, AppointmentSurvey survey) {
+    return notifyObservers(type, survey, audienceOf(survey));
+  }
+
+  // Stamps the survey with a new change version and notifies the given users
+  protected long notifyObservers(ChangeEvent.Type type, AppointmentSurvey survey, Set<Integer> audience) {
+    reindex(survey);
+    long version = changeVersion.incrementAndGet();
+    survey.setVersion(version);
+    notificationDispatcher.publish(type, survey.getId(), version, audience);
+    return version;
+  }
+
+  // Every write passes through here via notifyObservers(), so the user indexes always match the surveys
+  private synchronized void reindex(AppointmentSurvey survey) {
+    boolean exists = surveysById.get(survey.getId()) == survey;
+    Set<Integer> participants = new HashSet<>();
+    Set<Integer> invitees = new HashSet<>();
+    if (exists) {
+      participants.addAll(survey.getParticipantUserIds());
+      participants.add(survey.getCreatedByUserId());
+      invitees.addAll(survey.getInvitedUserIds());
+    }
+    updateIndex(surveyIdsByParticipant, participantsBySurvey, survey.getId(), participants);
+    updateIndex(surveyIdsByInvitee, inviteesBySurvey, survey.getId(), invitees);
+  }
+
+  private static void updateIndex(Map<Integer, Set<Integer>> surveyIdsByUser, Map<Integer, Set<Integer>> usersBySurvey,
+                                  int surveyId, Set<Integer> userIds) {
+    Set<Integer> indexed = usersBySurvey.getOrDefault(surveyId, Set.of());
+    for (Integer userId : indexed) {
+      if (!userIds.contains(userId)) surveyIdsByUser.get(userId).remove(surveyId);
+    }
+    for (Integer userId : userIds) {
+      if (!indexed.contains(userId)) surveyIdsByUser.computeIfAbsent(userId, id -> new HashSet<>()).add(surveyId);
+    }
+    if (userIds.isEmpty()) usersBySurvey.remove(surveyId);
+    else usersBySurvey.put(surveyId, userIds);
+  }
+
+  private List<AppointmentSurvey> participatedSurveysOf(int userId) {
+    return surveyIdsByParticipant.getOrDefault(userId, Set.of()).stream()
+      .map(surveysById::get)
+      .toList();
+  }
+
+  private List<AppointmentSurvey> invitedSurveysOf(int userId) {
+    Set<Integer> participated = surveyIdsByParticipant.getOrDefault(userId, Set.of());
+    return surveyIdsByInvitee.getOrDefault(userId, Set.of()).stream()
+      .filter(id -> !participated.contains(id))
+      .map(surveysById::get)
+      .toList();
+  }
+
+  // Callers get copies: RMI serializes results after the lock is released, and local callers
+  // must not change the stored surveys behind the indexes
+  private static List<AppointmentSurvey> copies(List<AppointmentSurvey> surveys) {
+    return surveys.stream().map(AppointmentSurvey::copy).toList();
+  }
+
+  // Remembers that these users lost access to the survey, so delta syncs can report the removal
+  private synchronized void recordRemovals(int surveyId, Set<Integer> userIds, long version) {
+    for (Integer userId : userIds) {
+      removalsByUser.computeIfAbsent(userId, id -> new HashMap<>()).put(surveyId, version);
+    }
+  }
+
+  // Users who may see the survey: creator, participants and invited users
+  private static Set<Integer> audienceOf(AppointmentSurvey survey) {
+    Set<Integer> audience = new HashSet<>(survey.getParticipantUserIds());
+    audience.addAll(survey.getInvitedUserIds());
+    audience.add(survey.getCreatedByUserId());
+    return audience;
   }
 
   @Override
@@ -143,6 +238,12 @@ public class FakeRepository implements Repository {
     return null;
   }
 
+  @Override
+  public synchronized User authenticate(String username, String password) throws RemoteException {
+    User user = getUserByUsername(username);
+    return user != null && user.getPassword().equals(password) ? user : null;
+  }
+
   @Override
   public synchronized User getUserByEmail(String email) throws RemoteException {
     for (UserData user : users) {
@@ -154,24 +255,72 @@ public class FakeRepository implements Repository {
   @Override
   public synchronized void addUser(String username, String password, String email) throws RemoteException {
     users.add(new UserData(userId++, username, password, email));
-    notifyObservers();
+    notificationDispatcher.publish(ChangeEvent.Type.USER_ADDED, -1, changeVersion.get(), Set.of());
   }
 
   @Override
   public synchronized List<AppointmentSurvey> getParticipatedSurveys(int userId) throws RemoteException {
-    return surveysById.values().stream()
-      .filter(s -> s.getParticipantUserIds().contains(userId) || s.getCreatedByUserId() == userId)
-      .toList();
+    return copies(participatedSurveysOf(userId));
   }
 
   @Override
   public synchronized List<AppointmentSurvey> getInvitedSurveys(int userId) throws RemoteException {
-    return surveysById.values().stream()
-      .filter(s -> s.getInvitedUserIds().contains(userId))
-      .filter(s -> !s.getParticipantUserIds().contains(userId))
+    return copies(invitedSurveysOf(userId));
+  }
+
+  @Override
+  public synchronized List<SurveyOption> getOptionTallies(int surveyId) throws RemoteException {
+    AppointmentSurvey survey = surveysById.get(surveyId);
+    if (survey == null) return List.of();
+    // The options are kept in rank order already
+    return survey.getOptions().stream()
+      .map(o -> SurveyOption.withTallies(o.getId(), o.getTimeOption(), o.getWeight(), o.getPreferredWeight()))
       .toList();
   }
 
+  @Override
+  public synchronized SurveyPage getParticipatedSurveys(int userId, SurveyPageRequest request) throws RemoteException {
+    return page(participatedSurveysOf(userId), request);
+  }
+
+  @Override
+  public synchronized SurveyPage getInvitedSurveys(int userId, SurveyPageRequest request) throws RemoteException {
+    return page(invitedSurveysOf(userId), request);
+  }
+
+  private static SurveyPage page(List<AppointmentSurvey> surveys, SurveyPageRequest request) {
+    Comparator<SurveyCursor> keyOrder = Comparator.comparing(SurveyCursor::createdAt).thenComparingInt(SurveyCursor::id);
+    Comparator<SurveyCursor> order = request.sort() == SurveyPageRequest.Sort.NEWEST_FIRST ? keyOrder.reversed() : keyOrder;
+    SurveyCursor after = request.after();
+
+    List<AppointmentSurvey> page = surveys.stream()
+      .filter(s -> switch (request.status()) {
+        case ALL -> true;
+        case OPEN -> s.isOpen();
+        case CLOSED -> !s.isOpen();
+      })
+      .filter(s -> after == null || order.compare(SurveyCursor.of(s), after) > 0)
+      .sorted(Comparator.comparing(SurveyCursor::of, order))
+      .limit(request.pageSize() + 1)
+      .map(AppointmentSurvey::copy)
+      .toList();
+    if (page.size() <= request.pageSize()) {
+      return new SurveyPage(page, null);
+    }
+    page = new ArrayList<>(page.subList(0, request.pageSize()));
+    return new SurveyPage(page, SurveyCursor.of(page.getLast()));
+  }
+
+  @Override
+  public synchronized List<SurveySummary> getParticipatedSurveySummaries(int userId) throws RemoteException {
+    return participatedSurveysOf(userId).stream().map(SurveySummary::of).toList();
+  }
+
+  @Override
+  public synchronized List<SurveySummary> getInvitedSurveySummaries(int userId) throws RemoteException {
+    return invitedSurveysOf(userId).stream().map(SurveySummary::of).toList();
+  }
+
   @Override
   public synchronized void addSurvey(int userId, String label, String description) throws RemoteException {
     String joinKey;
@@ -183,7 +332,7 @@ public class FakeRepository implements Repository {
 
     surveysById.put(survey.getId(), survey);
     surveysByJoinKey.put(joinKey, survey);
-    notifyObservers();
+    notifyObservers(ChangeEvent.Type.SURVEY_CREATED, survey);
   }
 
   @Override
@@ -197,37 +346,61 @@ public class FakeRepository implements Repository {
 
     surveysById.put(survey.getId(), survey);
     surveysByJoinKey.put(joinKey, survey);
-    notifyObservers();
+    notifyObservers(ChangeEvent.Type.SURVEY_CREATED, survey);
   }
 
   @Override
   public synchronized AppointmentSurvey getSurvey(int surveyId) throws RemoteException {
-    return surveysById.get(surveyId);
+    AppointmentSurvey survey = surveysById.get(surveyId);
+    return survey == null ? null : survey.copy();
+  }
+
+  @Override
+  public synchronized long getCurrentVersion() throws RemoteException {
+    return changeVersion.get();
+  }
+
+  @Override
+  public synchronized SurveyChanges getChangesSince(int userId, long sinceVersion) throws RemoteException {
+    List<AppointmentSurvey> upserted = surveysById.values().stream()
+      .filter(s -> s.getVersion() > sinceVersion && audienceOf(s).contains(userId))
+      .map(AppointmentSurvey::copy)
+      .toList();
+
+    Set<Integer> removed = new HashSet<>();
+    if (sinceVersion > 0) {
+      removalsByUser.getOrDefault(userId, Map.of()).forEach((surveyId, version) -> {
+        if (version > sinceVersion) removed.add(surveyId);
+      });
+      // Surveys the user regained access to after losing it are upserts, not removals
+      upserted.forEach(s -> removed.remove(s.getId()));
+    }
+    return new SurveyChanges(changeVersion.get(), upserted, removed);
   }
 
   @Override
   public synchronized void removeSurvey(int surveyId) throws RemoteException {
-    surveysById.remove(surveyId);
-    notifyObservers();
+    AppointmentSurvey survey = surveysById.remove(surveyId);
+    if (survey != null) {
+      surveysByJoinKey.remove(survey.getJoinKey());
+      Set<Integer> audience = audienceOf(survey);
+      recordRemovals(surveyId, audience, notifyObservers(ChangeEvent.Type.SURVEY_DELETED, survey, audience));
+    }
   }
 
   @Override
-  public boolean participateInSurvey(String keyJoin, int userId) throws RemoteException {
+  public synchronized boolean participateInSurvey(String keyJoin, int userId) throws RemoteException {
     AppointmentSurvey survey = surveysByJoinKey.get(keyJoin);
-    try {
-      if (survey != null && !getParticipatedSurveys(userId).contains(survey)) {
-        survey.join(userId);
-        notifyObservers();
-        return true;
-      }
-    } catch (RemoteException e) {
-      throw new RuntimeException(e);
+    if (survey != null && !surveyIdsByParticipant.getOrDefault(userId, Set.of()).contains(survey.getId())) {
+      survey.join(userId);
+      notifyObservers(ChangeEvent.Type.PARTICIPATION_CHANGED, survey);
+      return true;
     }
     return false;
   }
 
   @Override
-  public boolean declineSurvey(String keyJoin, int userId) throws RemoteException {
+  public synchronized boolean declineSurvey(String keyJoin, int userId) throws RemoteException {
     AppointmentSurvey survey = surveysByJoinKey.get(keyJoin);
     if (survey == null) return false;
 
@@ -235,7 +408,10 @@ public class FakeRepository implements Repository {
       !survey.getParticipantUserIds().contains(userId)) {
 
       survey.getInvitedUserIds().remove(userId);
-      notifyObservers();
+      Set<Integer> audience = audienceOf(survey);
+      audience.add(userId); // no longer invited, but still has to drop the survey
+      long version = notifyObservers(ChangeEvent.Type.PARTICIPATION_CHANGED, survey, audience);
+      recordRemovals(survey.getId(), Set.of(userId), version);
 
       return true;
     }
@@ -244,12 +420,77 @@ public class FakeRepository implements Repository {
   }
 
   @Override
-  public void updateSurvey(AppointmentSurvey currentSurvey) throws RemoteException {
+  public synchronized boolean updateSurvey(AppointmentSurvey update) throws RemoteException {
+    AppointmentSurvey previous = surveysById.get(update.getId());
+    if (previous == null || previous.getVersion() != update.getVersion()) return false;
+    AppointmentSurvey currentSurvey = update.copy();
     surveysById.put(currentSurvey.getId(), currentSurvey);
 
     surveysByJoinKey.values().removeIf(s -> s.getId() == currentSurvey.getId());
     surveysByJoinKey.put(currentSurvey.getJoinKey(), currentSurvey);
 
-    notifyObservers(); 
+    // Users who lose their invitation have to be notified as well
+    Set<Integer> audience = audienceOf(currentSurvey);
+    Set<Integer> lostAccess = audienceOf(previous);
+    lostAccess.removeAll(audience);
+    audience.addAll(lostAccess);
+    recordRemovals(currentSurvey.getId(), lostAccess,
+      notifyObservers(ChangeEvent.Type.SURVEY_UPDATED, currentSurvey, audience));
+    return true;
+  }
+
+  @Override
+  public synchronized void castVotes(int surveyId, int userId, Set<Integer> optionIds, Integer preferredOptionId) throws RemoteException {
+    AppointmentSurvey survey = surveysById.get(surveyId);
+    if (survey == null || !survey.isOpen()) return;
+
+    updateOptions(survey, option -> {
+      option.revokeVote(userId);
+      option.revokePreferVote(userId);
+      if (optionIds.contains(option.getId())) {
+        option.vote(userId);
+        if (preferredOptionId != null && preferredOptionId == option.getId()) option.prefer(userId);
+      }
+    });
+    notifyObservers(ChangeEvent.Type.VOTE_CHANGED, survey);
+  }
+
+  @Override
+  public synchronized void revokeVotes(int surveyId, int userId) throws RemoteException {
+    AppointmentSurvey survey = surveysById.get(surveyId);
+    if (survey == null || !survey.isOpen()) return;
+
+    updateOptions(survey, option -> {
+      option.revokeVote(userId);
+      option.revokePreferVote(userId);
+    });
+    notifyObservers(ChangeEvent.Type.VOTE_CHANGED, survey);
+  }
+
+  @Override
+  public synchronized void closeSurvey(int surveyId) throws RemoteException {
+    AppointmentSurvey survey = surveysById.get(surveyId);
+    if (survey != null && survey.isOpen()) {
+      survey.close();
+      notifyObservers(ChangeEvent.Type.SURVEY_UPDATED, survey);
+    }
+  }
+
+  @Override
+  public synchronized boolean inviteUser(int surveyId, int userId) throws RemoteException {
+    AppointmentSurvey survey = surveysById.get(surveyId);
+    if (survey == null || survey.getInvitedUserIds().contains(userId)) return false;
+
+    survey.inviteUser(userId);
+    notifyObservers(ChangeEvent.Type.INVITATION_ADDED, survey);
+    return true;
+  }
+
+  // Options are sorted by their votes, so they have to be re-inserted after changing them
+  private void updateOptions(AppointmentSurvey survey, Consumer<SurveyOption> change) {
+    List<SurveyOption> options = new ArrayList<>(survey.getOptions());
+    survey.getOptions().clear();
+    options.forEach(change);
+    survey.getOptions().addAll(options);
   }
 }
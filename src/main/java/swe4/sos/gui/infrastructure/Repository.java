@@ -3,14 +3,20 @@ package swe4.sos.gui.infrastructure;
 import swe4.sos.server.client.ClientCallback;
 
 import java.rmi.RemoteException;
-import java.util.ArrayList;
 import java.util.List;
 
 public interface Repository extends UserRepository, SurveyRepository {
 
-
+  // Receives every change event
   void addObserver(ClientCallback observer) throws RemoteException;
 
+  // Receives only events about surveys the user created, participates in or is invited to
+  void addObserver(ClientCallback observer, int userId) throws RemoteException;
+
   void removeObserver(ClientCallback observer) throws RemoteException;
 
+  // Runs the commands in order in one round trip and returns their results in the same order.
+  // With transactional set, all database writes commit together or not at all.
+  List<Object> executeBatch(List<RepositoryCommand<?>> commands, boolean transactional) throws RemoteException;
+
 }
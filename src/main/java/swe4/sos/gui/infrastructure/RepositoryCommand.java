@@ -0,0 +1,12 @@
+package swe4.sos.gui.infrastructure;
+
+import java.io.Serializable;
+import java.rmi.RemoteException;
+
+/**
+ * A repository call packed as data, so several of them can be sent to the server in one
+ * {@link Repository#executeBatch} round trip. See {@link RepositoryCommands} for the commands.
+ */
+public interface RepositoryCommand<T> extends Serializable {
+  T execute(Repository repository) throws RemoteException;
+}
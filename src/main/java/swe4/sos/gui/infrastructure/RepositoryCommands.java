@@ -0,0 +1,91 @@
+package swe4.sos.gui.infrastructure;
+
+import swe4.sos.gui.model.AppointmentSurvey;
+import swe4.sos.gui.model.SurveyChanges;
+import swe4.sos.gui.model.SurveySummary;
+import swe4.sos.gui.model.User;
+
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Commands for {@link Repository#executeBatch}. Each one simply forwards to the repository
+ * method of the same name on the server.
+ */
+public final class RepositoryCommands {
+  private RepositoryCommands() {}
+
+  public record GetCurrentVersion() implements RepositoryCommand<Long> {
+    public Long execute(Repository repository) throws RemoteException {
+      return repository.getCurrentVersion();
+    }
+  }
+
+  public record GetParticipatedSurveySummaries(int userId) implements RepositoryCommand<List<SurveySummary>> {
+    public List<SurveySummary> execute(Repository repository) throws RemoteException {
+      return repository.getParticipatedSurveySummaries(userId);
+    }
+  }
+
+  public record GetInvitedSurveySummaries(int userId) implements RepositoryCommand<List<SurveySummary>> {
+    public List<SurveySummary> execute(Repository repository) throws RemoteException {
+      return repository.getInvitedSurveySummaries(userId);
+    }
+  }
+
+  public record GetChangesSince(int userId, long sinceVersion) implements RepositoryCommand<SurveyChanges> {
+    public SurveyChanges execute(Repository repository) throws RemoteException {
+      return repository.getChangesSince(userId, sinceVersion);
+    }
+  }
+
+  public record GetSurvey(int surveyId) implements RepositoryCommand<AppointmentSurvey> {
+    public AppointmentSurvey execute(Repository repository) throws RemoteException {
+      return repository.getSurvey(surveyId);
+    }
+  }
+
+  public record GetUserByEmail(String email) implements RepositoryCommand<User> {
+    public User execute(Repository repository) throws RemoteException {
+      return repository.getUserByEmail(email);
+    }
+  }
+
+  public record InviteUser(int surveyId, int userId) implements RepositoryCommand<Boolean> {
+    public Boolean execute(Repository repository) throws RemoteException {
+      return repository.inviteUser(surveyId, userId);
+    }
+  }
+
+  /** Looks the user up and invites them; returns the user, or null if nobody has this email. */
+  public record InviteUserByEmail(int surveyId, String email) implements RepositoryCommand<User> {
+    public User execute(Repository repository) throws RemoteException {
+      User user = repository.getUserByEmail(email);
+      if (user != null) repository.inviteUser(surveyId, user.getId());
+      return user;
+    }
+  }
+
+  public record CastVotes(int surveyId, int userId, Set<Integer> optionIds, Integer preferredOptionId)
+    implements RepositoryCommand<Void> {
+    public Void execute(Repository repository) throws RemoteException {
+      repository.castVotes(surveyId, userId, optionIds, preferredOptionId);
+      return null;
+    }
+  }
+
+  public record RevokeVotes(int surveyId, int userId) implements RepositoryCommand<Void> {
+    public Void execute(Repository repository) throws RemoteException {
+      repository.revokeVotes(surveyId, userId);
+      return null;
+    }
+  }
+
+  public record CloseSurvey(int surveyId) implements RepositoryCommand<Void> {
+    public Void execute(Repository repository) throws RemoteException {
+      repository.closeSurvey(surveyId);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package swe4.sos.gui.infrastructure;
+
+import swe4.sos.gui.model.AppointmentSurvey;
+import swe4.sos.gui.model.SurveyChanges;
+import swe4.sos.gui.model.SurveySummary;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Client-side copy of the current user's surveys. The first {@link #sync} only fetches
+ * summaries for the dashboard; afterwards it asks the server for what changed since the
+ * last synchronized version and patches the copy in place. Full surveys are kept for the
+ * ones that arrived with a delta or were opened via {@link #rememberSurvey}.
+ */
+public class SurveyReplica {
+  private static SurveyReplica instance;
+
+  private final Map<Integer, SurveySummary> participated = new LinkedHashMap<>();
+  private final Map<Integer, SurveySummary> invited = new LinkedHashMap<>();
+  private final Map<Integer, AppointmentSurvey> surveysById = new HashMap<>();
+  private int userId = -1;
+  private volatile long version; // read without the lock by getVersion
+  private boolean loaded;
+
+  // The client shares one instance; the load generator keeps one per simulated user
+  public SurveyReplica() {}
+
+  public static SurveyReplica getInstance() {
+    if (instance == null) {
+      instance = new SurveyReplica();
+    }
+    return instance;
+  }
+
+  /**
+   * Fetches and applies the changes since the last sync and returns them so views can patch
+   * themselves. Returns {@code null} if a fresh snapshot was loaded instead; views then reload everything.
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized SurveyChanges sync(Repository repository, int userId) throws RemoteException {
+    if (userId != this.userId) {
+      clear();
+      this.userId = userId;
+    }
+
+    if (!loaded) {
+      // One round trip. The version is read first: anything changing while the summaries
+      // load shows up again in the next delta
+      List<Object> snapshot = repository.executeBatch(List.of(
+        new RepositoryCommands.GetCurrentVersion(),
+        new RepositoryCommands.GetParticipatedSurveySummaries(userId),
+        new RepositoryCommands.GetInvitedSurveySummaries(userId)), false);
+      participated.clear();
+      invited.clear();
+      ((List<SurveySummary>) snapshot.get(1)).forEach(s -> participated.put(s.getId(), s));
+      ((List<SurveySummary>) snapshot.get(2)).forEach(s -> invited.put(s.getId(), s));
+      version = (Long) snapshot.get(0);
+      loaded = true;
+      return null;
+    }
+
+    SurveyChanges changes = repository.getChangesSince(userId, version);
+    for (Integer surveyId : changes.removedSurveyIds()) {
+      participated.remove(surveyId);
+      invited.remove(surveyId);
+      surveysById.remove(surveyId);
+    }
+    for (AppointmentSurvey survey : changes.upserted()) {
+      SurveySummary summary = SurveySummary.of(survey);
+      surveysById.put(survey.getId(), survey);
+      if (isParticipated(survey, userId)) participated.put(survey.getId(), summary);
+      else participated.remove(survey.getId());
+      if (isInvited(survey, userId)) invited.put(survey.getId(), summary);
+      else invited.remove(survey.getId());
+    }
+    version = Math.max(version, changes.version());
+    return changes;
+  }
+
+  public synchronized AppointmentSurvey getSurvey(int surveyId) {
+    return surveysById.get(surveyId);
+  }
+
+  /** Keeps a survey fetched outside of {@link #sync}; later deltas keep it current. */
+  public synchronized void rememberSurvey(AppointmentSurvey survey) {
+    if (survey != null) surveysById.put(survey.getId(), survey);
+  }
+
+  // Everything up to this version is in the replica; 0 before the first sync
+  public long getVersion() {
+    return version;
+  }
+
+  public synchronized SurveySummary getSummary(int surveyId) {
+    SurveySummary summary = participated.get(surveyId);
+    return summary != null ? summary : invited.get(surveyId);
+  }
+
+  public synchronized List<SurveySummary> getParticipatedSurveys() {
+    return new ArrayList<>(participated.values());
+  }
+
+  public synchronized List<SurveySummary> getInvitedSurveys() {
+    return new ArrayList<>(invited.values());
+  }
+
+  public synchronized void clear() {
+    participated.clear();
+    invited.clear();
+    surveysById.clear();
+    userId = -1;
+    version = 0;
+    loaded = false;
+  }
+
+  public static boolean isParticipated(AppointmentSurvey survey, int userId) {
+    return survey.getParticipantUserIds().contains(userId) || survey.getCreatedByUserId() == userId;
+  }
+
+  public static boolean isInvited(AppointmentSurvey survey, int userId) {
+    return !isParticipated(survey, userId) && survey.getInvitedUserIds().contains(userId);
+  }
+}
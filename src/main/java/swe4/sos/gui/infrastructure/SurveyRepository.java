@@ -1,21 +1,44 @@
 package swe4.sos.gui.infrastructure;
 
 import swe4.sos.gui.model.AppointmentSurvey;
+import swe4.sos.gui.model.SurveyChanges;
 import swe4.sos.gui.model.SurveyOption;
+import swe4.sos.gui.model.SurveyPage;
+import swe4.sos.gui.model.SurveyPageRequest;
+import swe4.sos.gui.model.SurveySummary;
 
 import java.rmi.Remote;
 import java.rmi.RemoteException;
 import java.util.List;
+import java.util.Set;
 
 public interface SurveyRepository extends Remote {
   List<AppointmentSurvey> getParticipatedSurveys(int userId) throws RemoteException;
   List<AppointmentSurvey> getInvitedSurveys(int userId) throws RemoteException;
+  SurveyPage getParticipatedSurveys(int userId, SurveyPageRequest request) throws RemoteException;
+  SurveyPage getInvitedSurveys(int userId, SurveyPageRequest request) throws RemoteException;
+  List<SurveySummary> getParticipatedSurveySummaries(int userId) throws RemoteException;
+  List<SurveySummary> getInvitedSurveySummaries(int userId) throws RemoteException;
   void addSurvey(int userId, String label, String description) throws RemoteException;
   void addSurvey(int userId, String label, String description, List<SurveyOption> options) throws RemoteException;
   AppointmentSurvey getSurvey(int surveyId) throws RemoteException;
+  // Options with their vote counts only (no voter sets), best ranked first
+  List<SurveyOption> getOptionTallies(int surveyId) throws RemoteException;
+  // Surveys of the user that changed or disappeared after the given version (0 = everything)
+  SurveyChanges getChangesSince(int userId, long sinceVersion) throws RemoteException;
+  // Version up to which all changes are visible; a snapshot read afterwards can be synced from it
+  long getCurrentVersion() throws RemoteException;
   void removeSurvey(int surveyId) throws RemoteException;
   boolean participateInSurvey(String keyJoin, int userId) throws RemoteException;
   boolean declineSurvey(String keyJoin, int userId) throws RemoteException;
 
-  void updateSurvey(AppointmentSurvey currentSurvey) throws RemoteException;
+  // Applies the survey only if it is unchanged since the copy was loaded (same version);
+  // returns false on a conflict, leaving it to the caller to reload the survey
+  boolean updateSurvey(AppointmentSurvey currentSurvey) throws RemoteException;
+
+  // Narrow commands that only carry ids instead of the whole survey graph
+  void castVotes(int surveyId, int userId, Set<Integer> optionIds, Integer preferredOptionId) throws RemoteException;
+  void revokeVotes(int surveyId, int userId) throws RemoteException;
+  void closeSurvey(int surveyId) throws RemoteException;
+  boolean inviteUser(int surveyId, int userId) throws RemoteException;
 }
@@ -9,5 +9,7 @@ public interface UserRepository extends Remote {
   User getUser(int id) throws RemoteException;
   User getUserByUsername(String username) throws RemoteException;
   User getUserByEmail(String email) throws RemoteException;
+  // Checks the password on the server; returns the user, or null if unknown or the password is wrong
+  User authenticate(String username, String password) throws RemoteException;
   void addUser(String username, String password, String email) throws RemoteException;
 }
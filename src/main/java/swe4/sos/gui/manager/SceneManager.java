@@ -6,8 +6,12 @@
   import javafx.stage.Modality;
   import javafx.stage.Stage;
   import swe4.sos.gui.controller.Controller;
+  import swe4.sos.server.client.ChangeEvent;
 
   import java.io.IOException;
+  import java.util.List;
+  import java.util.concurrent.CompletableFuture;
+  import java.util.concurrent.CompletionStage;
 
   public class SceneManager {
     private static SceneManager instance;
@@ -28,6 +32,7 @@
     }
 
     public void switchTo(String fxmlPath) {
+      ViewEvent event = beginViewEvent("switch", fxmlPath);
       try {
         FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
         Parent root = loader.load();
@@ -38,25 +43,50 @@
         mainStage.sizeToScene();
       } catch (IOException e) {
         e.printStackTrace();
+      } finally {
+        event.commit();
       }
     }
 
     public void refreshCurrentView() {
       if (currentController != null) {
+        ViewEvent event = beginViewEvent("refresh", currentController.getClass().getSimpleName());
         currentController.refreshData();
+        event.commit();
       }
     }
 
+    public CompletionStage<?> handleChanges(List<ChangeEvent> events) {
+      if (currentController == null) return CompletableFuture.completedFuture(null);
+      // Lasts until the view has applied the changes, including the server round trip
+      ViewEvent event = beginViewEvent("changes", currentController.getClass().getSimpleName());
+      event.changeEvents = events.size();
+      return currentController.onChanges(events).whenComplete((result, error) -> event.commit());
+    }
+
+    // Flight recorder event; costs next to nothing when no recording is running
+    private static ViewEvent beginViewEvent(String action, String view) {
+      ViewEvent event = new ViewEvent();
+      event.action = action;
+      event.view = view;
+      event.begin();
+      return event;
+    }
+
     public <T extends Controller> T switchToWithController(String fxmlPath) {
+      ViewEvent event = beginViewEvent("switch", fxmlPath);
       try {
         FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
         Parent root = loader.load();
+        currentController = loader.getController();
         mainStage.setScene(new Scene(root));
         mainStage.sizeToScene();
         return loader.getController();
       } catch (IOException e) {
         e.printStackTrace();
         return null;
+      } finally {
+        event.commit();
       }
     }
 
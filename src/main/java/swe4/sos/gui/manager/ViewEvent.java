@@ -0,0 +1,24 @@
+package swe4.sos.gui.manager;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("swe4.sos.View")
+@Label("View Switch or Refresh")
+@Category({"SOS", "Client"})
+@Description("Loading a view, or refreshing the current one until its data is shown")
+class ViewEvent extends Event {
+  @Label("Action")
+  @Description("switch, refresh or changes")
+  String action;
+
+  @Label("View")
+  String view;
+
+  @Label("Change Events")
+  @Description("Number of server change events handled by a refresh")
+  int changeEvents;
+}
@@ -2,20 +2,27 @@ package swe4.sos.gui.model;
 
 import swe4.sos.gui.infrastructure.SurveyRepository;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.*;
 
 public class AppointmentSurvey implements Serializable {
+  private static final long serialVersionUID = 2L;
+
   private int id, createdByUserId;
   private String label, description;
-  private LocalDateTime createdAt;
+  private transient LocalDateTime createdAt;
   private String joinKey;
   private boolean open = true;
+  private long version; // change version, increases with every modification
 
-  private Set<Integer> invitedUserIds = new HashSet<>();
-  private Set<Integer> participantUserIds = new HashSet<>();
-  private SortedSet<SurveyOption> options = new TreeSet<>();
+  // Written by writeObject, see CompactEncoding
+  private transient Set<Integer> invitedUserIds = new HashSet<>();
+  private transient Set<Integer> participantUserIds = new HashSet<>();
+  private transient SortedSet<SurveyOption> options = new TreeSet<>();
 
   public AppointmentSurvey(int id, int createdByUserId,
                            String label, String description,
@@ -36,6 +43,19 @@ public class AppointmentSurvey implements Serializable {
     this.options.addAll(options);
   }
 
+  /** Independent copy, e.g. to hand out a survey that is modified under a lock. */
+  public AppointmentSurvey copy() {
+    AppointmentSurvey copy = new AppointmentSurvey(id, createdByUserId, label, description, createdAt, joinKey);
+    copy.open = open;
+    copy.version = version;
+    copy.invitedUserIds.addAll(invitedUserIds);
+    copy.participantUserIds.addAll(participantUserIds);
+    for (SurveyOption option : options) {
+      copy.options.add(option.copy());
+    }
+    return copy;
+  }
+
   public boolean isOpen() { return open; }
 
   public void close() {
@@ -82,6 +102,14 @@ public class AppointmentSurvey implements Serializable {
     options.add(option);
   }
 
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
   public String getJoinKey() {
     return joinKey;
   }
@@ -93,4 +121,27 @@ public class AppointmentSurvey implements Serializable {
   public void join(int userId) {
     participantUserIds.add(userId);
   }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    CompactEncoding.writeTime(out, createdAt);
+    CompactEncoding.writeIds(out, invitedUserIds);
+    CompactEncoding.writeIds(out, participantUserIds);
+    CompactEncoding.writeVarInt(out, options.size());
+    for (SurveyOption option : options) {
+      option.writeFields(out);
+    }
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    createdAt = CompactEncoding.readTime(in);
+    invitedUserIds = CompactEncoding.readIds(in);
+    participantUserIds = CompactEncoding.readIds(in);
+    options = new TreeSet<>();
+    int optionCount = CompactEncoding.readVarInt(in);
+    for (int i = 0; i < optionCount; i++) {
+      options.add(SurveyOption.readFields(in));
+    }
+  }
 }
@@ -0,0 +1,93 @@
+package swe4.sos.gui.model;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Encodings used by the model classes' {@code writeObject}/{@code readObject}. Integers are
+ * written as varints (7 bits per byte, so small values take one byte), id sets as their sorted
+ * ids with each one stored as the difference to the previous, and timestamps as epoch seconds
+ * plus nanoseconds. Default serialization instead writes a boxed Integer object per set element
+ * and a full object for every LocalDateTime.
+ */
+final class CompactEncoding {
+  private CompactEncoding() {}
+
+  static void writeVarLong(ObjectOutput out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  static long readVarLong(ObjectInput in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) return value;
+    }
+    throw new IOException("Malformed varint");
+  }
+
+  static void writeVarInt(ObjectOutput out, int value) throws IOException {
+    writeVarLong(out, value & 0xFFFFFFFFL);
+  }
+
+  static int readVarInt(ObjectInput in) throws IOException {
+    return (int) readVarLong(in);
+  }
+
+  // Zig-zag keeps small negative values (epoch seconds before 1970) short as well
+  static void writeSignedVarLong(ObjectOutput out, long value) throws IOException {
+    writeVarLong(out, (value << 1) ^ (value >> 63));
+  }
+
+  static long readSignedVarLong(ObjectInput in) throws IOException {
+    long value = readVarLong(in);
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  static void writeIds(ObjectOutput out, Set<Integer> ids) throws IOException {
+    int[] sorted = ids.stream().mapToInt(Integer::intValue).toArray();
+    Arrays.sort(sorted);
+    writeVarInt(out, sorted.length);
+    long previous = 0;
+    for (int id : sorted) {
+      writeVarLong(out, id - previous);
+      previous = id;
+    }
+  }
+
+  static Set<Integer> readIds(ObjectInput in) throws IOException {
+    int count = readVarInt(in);
+    Set<Integer> ids = new HashSet<>(Math.max(16, (int) (count / 0.75f) + 1));
+    long previous = 0;
+    for (int i = 0; i < count; i++) {
+      previous += readVarLong(in);
+      ids.add((int) previous);
+    }
+    return ids;
+  }
+
+  // Model timestamps are local times without a zone, so UTC just serves as a fixed reference
+  static void writeTime(ObjectOutput out, LocalDateTime time) throws IOException {
+    out.writeBoolean(time != null);
+    if (time == null) return;
+    writeSignedVarLong(out, time.toEpochSecond(ZoneOffset.UTC));
+    writeVarInt(out, time.getNano());
+  }
+
+  static LocalDateTime readTime(ObjectInput in) throws IOException {
+    if (!in.readBoolean()) return null;
+    long epochSecond = readSignedVarLong(in);
+    return LocalDateTime.ofEpochSecond(epochSecond, readVarInt(in), ZoneOffset.UTC);
+  }
+}
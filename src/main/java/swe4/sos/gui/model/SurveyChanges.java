@@ -0,0 +1,18 @@
+package swe4.sos.gui.model;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Delta between a client's last synchronized version and the server state.
+ * {@code upserted} contains every visible survey that changed, {@code removedSurveyIds}
+ * the surveys the user can no longer see. The client continues from {@code version}.
+ */
+public record SurveyChanges(long version, List<AppointmentSurvey> upserted, Set<Integer> removedSurveyIds)
+  implements Serializable {
+
+  public boolean isEmpty() {
+    return upserted.isEmpty() && removedSurveyIds.isEmpty();
+  }
+}
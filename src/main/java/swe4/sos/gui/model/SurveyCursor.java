@@ -0,0 +1,15 @@
+package swe4.sos.gui.model;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Position in a survey listing: the sort key of the last survey of a page.
+ * The next page continues strictly after it, so inserts and deletes never shift pages.
+ */
+public record SurveyCursor(LocalDateTime createdAt, int id) implements Serializable {
+
+  public static SurveyCursor of(AppointmentSurvey survey) {
+    return new SurveyCursor(survey.getCreatedAt(), survey.getId());
+  }
+}
@@ -1,14 +1,24 @@
 package swe4.sos.gui.model;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 public class SurveyOption implements Comparable<SurveyOption>, Serializable {
-  private int id; // optional for DB use
-  private LocalDateTime timeOption;
-  private Set<Integer> votedUserIds = new HashSet<>(), preferredUserIds = new HashSet<>();
+  private static final long serialVersionUID = 2L;
+
+  // Written by writeFields, see CompactEncoding
+  private transient int id; // optional for DB use
+  private transient LocalDateTime timeOption;
+  private transient Set<Integer> votedUserIds = new HashSet<>(), preferredUserIds = new HashSet<>();
+  // Stored vote counts, set instead of the voter sets when only the tallies were loaded
+  private transient Integer voteTally, preferredTally;
 
   @Override
   public int compareTo(SurveyOption o) {
@@ -26,6 +36,32 @@ public class SurveyOption implements Comparable<SurveyOption>, Serializable {
     this.timeOption = timeOption;
   }
 
+  /** Option that only knows its vote counts; the voter sets stay empty and it must not be voted on. */
+  public static SurveyOption withTallies(int id, LocalDateTime timeOption, int votes, int preferredVotes) {
+    SurveyOption option = new SurveyOption(id, timeOption);
+    option.voteTally = votes;
+    option.preferredTally = preferredVotes;
+    return option;
+  }
+
+  /** Independent copy, e.g. to hand out an option that is modified under a lock. */
+  public SurveyOption copy() {
+    SurveyOption copy = new SurveyOption(id, timeOption);
+    copy.votedUserIds.addAll(votedUserIds);
+    copy.preferredUserIds.addAll(preferredUserIds);
+    copy.voteTally = voteTally;
+    copy.preferredTally = preferredTally;
+    return copy;
+  }
+
+  public boolean hasVoterSets() {
+    return voteTally == null;
+  }
+
+  public int getId() {
+    return id;
+  }
+
   public LocalDateTime getTimeOption() {
     return timeOption;
   }
@@ -34,8 +70,12 @@ public class SurveyOption implements Comparable<SurveyOption>, Serializable {
     return votedUserIds;
   }
 
+  public Set<Integer> getPreferredUserIds() {
+    return preferredUserIds;
+  }
+
   public int getWeight() {
-    return votedUserIds.size();
+    return voteTally != null ? voteTally : votedUserIds.size();
   }
 
   public void vote(int userId) {
@@ -43,7 +83,7 @@ public class SurveyOption implements Comparable<SurveyOption>, Serializable {
   }
 
   public int getPreferredWeight() {
-    return preferredUserIds.size();
+    return preferredTally != null ? preferredTally : preferredUserIds.size();
   }
 
   public void prefer(int userId) {
@@ -59,7 +99,7 @@ public class SurveyOption implements Comparable<SurveyOption>, Serializable {
   }
 
   public int getVoteCount() {
-    return votedUserIds.size();
+    return getWeight();
   }
 
   public boolean hasVoted(int userId) {
@@ -70,4 +110,40 @@ public class SurveyOption implements Comparable<SurveyOption>, Serializable {
     return preferredUserIds.contains(userId);
   }
 
+  // Also used by AppointmentSurvey, which writes its options inline
+  void writeFields(ObjectOutput out) throws IOException {
+    CompactEncoding.writeVarInt(out, id);
+    CompactEncoding.writeTime(out, timeOption);
+    CompactEncoding.writeIds(out, votedUserIds);
+    CompactEncoding.writeIds(out, preferredUserIds);
+    CompactEncoding.writeVarInt(out, voteTally == null ? 0 : voteTally + 1); // 0 for no tally
+    CompactEncoding.writeVarInt(out, preferredTally == null ? 0 : preferredTally + 1);
+  }
+
+  static SurveyOption readFields(ObjectInput in) throws IOException {
+    SurveyOption option = new SurveyOption(0, null);
+    option.readFieldsInto(in);
+    return option;
+  }
+
+  private void readFieldsInto(ObjectInput in) throws IOException {
+    id = CompactEncoding.readVarInt(in);
+    timeOption = CompactEncoding.readTime(in);
+    votedUserIds = CompactEncoding.readIds(in);
+    preferredUserIds = CompactEncoding.readIds(in);
+    int votes = CompactEncoding.readVarInt(in), preferred = CompactEncoding.readVarInt(in);
+    voteTally = votes == 0 ? null : votes - 1;
+    preferredTally = preferred == 0 ? null : preferred - 1;
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    writeFields(out);
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    readFieldsInto(in);
+  }
+
 }
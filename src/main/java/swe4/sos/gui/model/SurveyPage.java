@@ -0,0 +1,14 @@
+package swe4.sos.gui.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Result of a {@link SurveyPageRequest}. {@code nextCursor} is {@code null} on the last page.
+ */
+public record SurveyPage(List<AppointmentSurvey> surveys, SurveyCursor nextCursor) implements Serializable {
+
+  public boolean hasNext() {
+    return nextCursor != null;
+  }
+}
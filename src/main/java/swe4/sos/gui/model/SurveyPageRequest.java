@@ -0,0 +1,39 @@
+package swe4.sos.gui.model;
+
+import java.io.Serializable;
+
+/**
+ * One page of a survey listing, ordered by {@code created_at, id}.
+ * {@code after} is the cursor of the previous page, or {@code null} for the first page.
+ */
+public record SurveyPageRequest(SurveyCursor after, int pageSize, Sort sort, Status status) implements Serializable {
+  public static final int MAX_PAGE_SIZE = 200;
+
+  public enum Sort { NEWEST_FIRST, OLDEST_FIRST }
+
+  public enum Status { ALL, OPEN, CLOSED }
+
+  public SurveyPageRequest {
+    if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    if (sort == null) sort = Sort.NEWEST_FIRST;
+    if (status == null) status = Status.ALL;
+  }
+
+  public static SurveyPageRequest first(int pageSize) {
+    return new SurveyPageRequest(null, pageSize, Sort.NEWEST_FIRST, Status.ALL);
+  }
+
+  public SurveyPageRequest next(SurveyPage page) {
+    return new SurveyPageRequest(page.nextCursor(), pageSize, sort, status);
+  }
+
+  public SurveyPageRequest withSort(Sort sort) {
+    return new SurveyPageRequest(after, pageSize, sort, status);
+  }
+
+  public SurveyPageRequest withStatus(Status status) {
+    return new SurveyPageRequest(after, pageSize, sort, status);
+  }
+}
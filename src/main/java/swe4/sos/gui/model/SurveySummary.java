@@ -0,0 +1,49 @@
+package swe4.sos.gui.model;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Compact, read-only view of a survey with just what the dashboard displays and filters on.
+ */
+public class SurveySummary implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  private final int id, createdByUserId;
+  private final String label, description;
+  private final LocalDateTime createdAt;
+  private final String joinKey;
+  private final boolean open;
+  private final int participantCount;
+  private final long version;
+
+  public SurveySummary(int id, int createdByUserId, String label, String description,
+                       LocalDateTime createdAt, String joinKey, boolean open,
+                       int participantCount, long version) {
+    this.id = id;
+    this.createdByUserId = createdByUserId;
+    this.label = label;
+    this.description = description;
+    this.createdAt = createdAt;
+    this.joinKey = joinKey;
+    this.open = open;
+    this.participantCount = participantCount;
+    this.version = version;
+  }
+
+  public static SurveySummary of(AppointmentSurvey survey) {
+    return new SurveySummary(survey.getId(), survey.getCreatedByUserId(), survey.getLabel(),
+      survey.getDescription(), survey.getCreatedAt(), survey.getJoinKey(), survey.isOpen(),
+      survey.getParticipantUserIds().size(), survey.getVersion());
+  }
+
+  public int getId() { return id; }
+  public int getCreatedByUserId() { return createdByUserId; }
+  public String getLabel() { return label; }
+  public String getDescription() { return description; }
+  public LocalDateTime getCreatedAt() { return createdAt; }
+  public String getJoinKey() { return joinKey; }
+  public boolean isOpen() { return open; }
+  public int getParticipantCount() { return participantCount; }
+  public long getVersion() { return version; }
+}
@@ -3,10 +3,13 @@ package swe4.sos.gui.model;
 import java.io.Serializable;
 
 public class User implements Serializable {
+  private static final long serialVersionUID = 2L;
+
   private int id;
   private String username;
   private String email;
-  private String password; // In real apps, store hashes only
+  // In real apps, store hashes only. Never sent to clients; they log in via UserRepository.authenticate
+  private transient String password;
 
   public User(int id, String username, String password) {
     this.id = id;
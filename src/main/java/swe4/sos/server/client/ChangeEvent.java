@@ -0,0 +1,26 @@
+package swe4.sos.server.client;
+
+import java.io.Serializable;
+
+/**
+ * Describes a single change on the server. Clients use the survey id to refresh
+ * only the affected item instead of reloading the whole view.
+ */
+public record ChangeEvent(Type type, int surveyId, long version) implements Serializable {
+
+  public enum Type {
+    SURVEY_CREATED,
+    SURVEY_UPDATED,
+    SURVEY_DELETED,
+    VOTE_CHANGED,
+    INVITATION_ADDED,
+    PARTICIPATION_CHANGED,
+    USER_ADDED,
+    // Sent when events for a client had to be dropped; the client should reload everything
+    RESYNC
+  }
+
+  public boolean concernsSurvey(int id) {
+    return type == Type.RESYNC || surveyId == id;
+  }
+}
@@ -5,14 +5,18 @@ import javafx.application.Platform;
 import javafx.stage.Stage;
 import swe4.sos.gui.controller.Controller;
 import swe4.sos.gui.infrastructure.Repository;
+import swe4.sos.gui.infrastructure.SurveyReplica;
 import swe4.sos.gui.manager.SceneManager;
 
 import java.rmi.Naming;
 import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.time.Duration;
 
 public final class Client extends Application implements ClientCallback {
 
   private Repository repository;
+  private RefreshScheduler refreshScheduler;
 
   public static void main(String[] args) {
     launch(args);
@@ -26,11 +30,20 @@ public final class Client extends Application implements ClientCallback {
     String sosUrl = "rmi://%s/SOS".formatted(hostAndPort);
     System.out.printf("Connecting to '%s'%n", sosUrl);
     repository = (Repository) Naming.lookup(sosUrl);
+
+    // Bursts of changes are merged into one refresh of the current view
+    Duration window = Duration.ofMillis(Long.getLong("sos.refreshWindowMillis", 100));
+    refreshScheduler = new RefreshScheduler(window, Platform::runLater, SurveyReplica.getInstance()::getVersion,
+      events -> SceneManager.getInstance().handleChanges(events));
+
+    // Make this client reachable for server callbacks; it subscribes once a user logs in
+    UnicastRemoteObject.exportObject(this, 0);
   }
 
   @Override
   public void start(Stage primaryStage) {
     Controller.setRepository(repository);
+    Controller.setClientCallback(this);
 
     SceneManager.getInstance().setStage(primaryStage);
     SceneManager.getInstance().switchTo("/swe4/sos/gui/view/LoginView.fxml");
@@ -39,8 +52,18 @@ public final class Client extends Application implements ClientCallback {
   }
 
   @Override
-  public void notifyChange() throws RemoteException {
-    // Refresh data when notified by the server
-    Platform.runLater(SceneManager.getInstance()::refreshCurrentView);
+  public void stop() throws Exception {
+    try {
+      repository.removeObserver(this);
+    } finally {
+      UnicastRemoteObject.unexportObject(this, true);
+      refreshScheduler.shutdown();
+    }
+  }
+
+  @Override
+  public void notifyChange(ChangeEvent event) throws RemoteException {
+    // The current view decides what has to be refreshed, once per burst
+    refreshScheduler.submit(event);
   }
 }
@@ -4,5 +4,5 @@ import java.rmi.Remote;
 import java.rmi.RemoteException;
 
 public interface ClientCallback extends Remote {
-  void notifyChange() throws RemoteException;
+  void notifyChange(ChangeEvent event) throws RemoteException;
 }
@@ -0,0 +1,121 @@
+package swe4.sos.server.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Merges the change events a client receives into few view refreshes. Events arriving within
+ * {@code window} of the first one are handed over together, at most one per type and survey.
+ * A refresh is never started while the previous one is still running; events arriving in the
+ * meantime wait and are merged into the next refresh. Events whose version the client has
+ * already synchronized (e.g. its own writes) are dropped without refreshing.
+ */
+public class RefreshScheduler {
+
+  public record Statistics(long received, long merged, long stale, long refreshes) {
+  }
+
+  private record Key(ChangeEvent.Type type, int surveyId) {
+  }
+
+  private final Duration window;
+  private final Executor uiExecutor;
+  private final LongSupplier syncedVersion;
+  private final Function<List<ChangeEvent>, CompletionStage<?>> refresh;
+  private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "refresh-scheduler");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private Map<Key, ChangeEvent> pending = new LinkedHashMap<>();
+  private boolean scheduled, refreshing;
+  private long received, merged, stale, refreshes;
+
+  /**
+   * @param uiExecutor    runs the refresh, e.g. on the JavaFX thread
+   * @param syncedVersion version the client's data is known to be current at
+   * @param refresh       refreshes the view for the given events; completes when the refresh is done
+   */
+  public RefreshScheduler(Duration window, Executor uiExecutor, LongSupplier syncedVersion,
+                          Function<List<ChangeEvent>, CompletionStage<?>> refresh) {
+    this.window = window;
+    this.uiExecutor = uiExecutor;
+    this.syncedVersion = syncedVersion;
+    this.refresh = refresh;
+  }
+
+  /** Called for every event the server sends, from any thread. */
+  public synchronized void submit(ChangeEvent event) {
+    received++;
+    ChangeEvent previous = pending.get(new Key(event.type(), event.surveyId()));
+    if (previous != null) {
+      merged++;
+      if (previous.version() > event.version()) return;
+    }
+    pending.put(new Key(event.type(), event.surveyId()), event);
+    scheduleFlush();
+  }
+
+  private void scheduleFlush() {
+    if (scheduled || refreshing || pending.isEmpty()) return;
+    scheduled = true;
+    timer.schedule(() -> uiExecutor.execute(this::flush), window.toNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  private void flush() {
+    List<ChangeEvent> events;
+    synchronized (this) {
+      scheduled = false;
+      events = takeCurrent();
+      if (events.isEmpty()) return;
+      refreshing = true;
+      refreshes++;
+    }
+
+    CompletionStage<?> done;
+    try {
+      done = refresh.apply(events);
+    } catch (RuntimeException e) {
+      done = CompletableFuture.failedFuture(e);
+    }
+    // Failures are reported by the view itself
+    done.whenComplete((result, error) -> finishRefresh());
+  }
+
+  // Removes the pending events and returns those that are newer than what the client has seen
+  private List<ChangeEvent> takeCurrent() {
+    List<ChangeEvent> events = new ArrayList<>(pending.size());
+    long synced = syncedVersion.getAsLong();
+    for (ChangeEvent event : pending.values()) {
+      if (event.type() != ChangeEvent.Type.RESYNC && event.version() <= synced) stale++;
+      else events.add(event);
+    }
+    pending = new LinkedHashMap<>();
+    return events;
+  }
+
+  private synchronized void finishRefresh() {
+    refreshing = false;
+    scheduleFlush();
+  }
+
+  public synchronized Statistics getStatistics() {
+    return new Statistics(received, merged, stale, refreshes);
+  }
+
+  public void shutdown() {
+    timer.shutdownNow();
+  }
+}
@@ -0,0 +1,241 @@
+package swe4.sos.server.load;
+
+import swe4.sos.gui.infrastructure.Repository;
+import swe4.sos.gui.model.SurveySummary;
+import swe4.sos.gui.model.User;
+import swe4.sos.server.load.LoadMix.Operation;
+import swe4.sos.server.metrics.LatencyHistogram;
+
+import java.net.MalformedURLException;
+import java.rmi.Naming;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+/**
+ * Headless load test for a running {@code Server}: simulated users connect through the same
+ * {@link Repository} RMI stub as {@code Client}, each on its own virtual thread, so thousands of
+ * them fit into one JVM. Whether the server uses MySQL or {@code FakeRepository} (started with
+ * {@code -Dsos.repository=fake}) makes no difference here. Configured with system properties:
+ * <ul>
+ *   <li>{@code sos.load.users} – number of simulated users (default 100)</li>
+ *   <li>{@code sos.load.arrivalRate} – users starting per second, 0 for all at once (default 20)</li>
+ *   <li>{@code sos.load.durationSeconds} – length of the run, including the ramp-up (default 60)</li>
+ *   <li>{@code sos.load.thinkMillis} – mean pause between two operations of a user (default 1000)</li>
+ *   <li>{@code sos.load.surveys} – surveys created up front for users to join (default users / 10)</li>
+ *   <li>{@code sos.load.mix} – operation weights (default {@value LoadMix#DEFAULT})</li>
+ * </ul>
+ * Users and surveys are created on the first run and reused afterwards. The callbacks of the
+ * users must be reachable from the server; set {@code java.rmi.server.hostname} if the host
+ * name of this machine doesn't resolve there.
+ */
+public final class LoadGenerator {
+
+  private final Repository repository;
+  private final LoadMix mix;
+  private final long thinkMillis;
+  private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+  private final List<String> joinKeys = new ArrayList<>();
+  private final LongAdder notifications = new LongAdder();
+  private volatile long deadline;
+
+  LoadGenerator(Repository repository, LoadMix mix, long thinkMillis) {
+    this.repository = repository;
+    this.mix = mix;
+    this.thinkMillis = thinkMillis;
+    for (Operation operation : Operation.values()) {
+      stats.put(operation, new OperationStats());
+    }
+  }
+
+  public static void main(String[] args)
+    throws RemoteException, MalformedURLException, NotBoundException, InterruptedException {
+    String hostAndPort = args.length > 0 ? args[0] : "localhost";
+    int users = Integer.getInteger("sos.load.users", 100);
+    double arrivalRate = Double.parseDouble(System.getProperty("sos.load.arrivalRate", "20"));
+    long durationSeconds = Long.getLong("sos.load.durationSeconds", 60);
+    long thinkMillis = Long.getLong("sos.load.thinkMillis", 1000);
+    int surveys = Integer.getInteger("sos.load.surveys", Math.max(1, users / 10));
+    LoadMix mix = LoadMix.parse(System.getProperty("sos.load.mix", LoadMix.DEFAULT));
+
+    String sosUrl = "rmi://%s/SOS".formatted(hostAndPort);
+    System.out.printf("Connecting to '%s'%n", sosUrl);
+    LoadGenerator generator = new LoadGenerator((Repository) Naming.lookup(sosUrl), mix, thinkMillis);
+
+    long setupStart = System.nanoTime();
+    List<Integer> userIds = generator.createUsers(users);
+    generator.createSurveys(userIds, surveys);
+    System.out.printf("Set up %d users and %d join keys in %.1f s%n",
+      users, generator.joinKeyCount(), (System.nanoTime() - setupStart) / 1e9);
+
+    System.out.printf("Running %d users for %d s, %.1f arriving per second, %d ms think time, mix %s%n",
+      users, durationSeconds, arrivalRate, thinkMillis, mix);
+    long elapsed = generator.run(users, arrivalRate, TimeUnit.SECONDS.toNanos(durationSeconds));
+    generator.printReport(elapsed);
+    System.exit(0); // RMI keeps non-daemon threads alive
+  }
+
+  // Creates the users that don't exist yet and returns the ids of all of them
+  private List<Integer> createUsers(int count) throws InterruptedException {
+    List<Integer> userIds = new ArrayList<>(count);
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<Integer>> futures = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        String username = username(i);
+        futures.add(executor.submit(() -> {
+          User user = repository.getUserByUsername(username);
+          if (user == null) {
+            repository.addUser(username, password(username), username + "@example.com");
+            user = repository.getUserByUsername(username);
+          }
+          return user.getId();
+        }));
+      }
+      for (Future<Integer> future : futures) {
+        userIds.add(future.get());
+      }
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Can't create the load test users", e.getCause());
+    }
+    return userIds;
+  }
+
+  // Tops the open surveys of the users up to the given count and collects their join keys
+  private void createSurveys(List<Integer> userIds, int count) throws RemoteException {
+    collectJoinKeys(userIds);
+    int existing = joinKeyCount();
+    SplittableRandom random = new SplittableRandom(count);
+    for (int i = existing; i < count; i++) {
+      int userId = userIds.get(i % userIds.size());
+      repository.addSurvey(userId, "Load test survey " + i, "Created by the load generator",
+        SimulatedUser.randomOptions(random));
+    }
+    // The join keys of the new surveys are generated by the server
+    if (existing < count) collectJoinKeys(userIds);
+  }
+
+  private void collectJoinKeys(List<Integer> userIds) throws RemoteException {
+    synchronized (this) {
+      joinKeys.clear();
+    }
+    for (Integer userId : userIds) {
+      for (SurveySummary summary : repository.getParticipatedSurveySummaries(userId)) {
+        if (summary.getCreatedByUserId() == userId && summary.isOpen()) addJoinKey(summary.getJoinKey());
+      }
+    }
+  }
+
+  // Starts the users at the arrival rate and waits until all of them are done; returns the elapsed nanos
+  private long run(int users, double arrivalRate, long durationNanos) throws InterruptedException {
+    long start = System.nanoTime();
+    deadline = start + durationNanos;
+    ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "load-progress");
+      thread.setDaemon(true);
+      return thread;
+    });
+    progress.scheduleAtFixedRate(() -> printProgress(start), 10, 10, TimeUnit.SECONDS);
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < users && System.nanoTime() < deadline; i++) {
+        if (arrivalRate > 0) {
+          long arrival = start + (long) (i * 1e9 / arrivalRate);
+          long wait = arrival - System.nanoTime();
+          if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        String username = username(i);
+        executor.execute(new SimulatedUser(this, username, password(username), i));
+      }
+    } finally {
+      progress.shutdownNow();
+    }
+    return System.nanoTime() - start;
+  }
+
+  private void printProgress(long start) {
+    long operations = 0, errors = 0;
+    for (OperationStats operationStats : stats.values()) {
+      operations += operationStats.getLatencies().count();
+      errors += operationStats.getErrors();
+    }
+    System.out.printf("%4d s: %d operations, %d errors, %d notifications%n",
+      TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), operations, errors, notifications.sum());
+  }
+
+  private void printReport(long elapsedNanos) {
+    double seconds = elapsedNanos / 1e9;
+    System.out.printf("%nFinished after %.1f s; %d notifications received (%.1f/s)%n",
+      seconds, notifications.sum(), notifications.sum() / seconds);
+    System.out.printf("%-10s %8s %8s %8s %9s %9s %9s %9s %9s %9s%n",
+      "operation", "count", "errors", "skipped", "ops/s", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms");
+    stats.forEach((operation, operationStats) -> {
+      LatencyHistogram.Snapshot latencies = operationStats.getLatencies();
+      if (latencies.count() == 0 && operationStats.getSkipped() == 0) return;
+      System.out.printf("%-10s %8d %8d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+        operation.name().toLowerCase(), latencies.count(), operationStats.getErrors(), operationStats.getSkipped(),
+        latencies.count() / seconds, latencies.meanMillis(), latencies.percentileMillis(0.5),
+        latencies.percentileMillis(0.95), latencies.percentileMillis(0.99), latencies.maxMillis());
+    });
+    stats.forEach((operation, operationStats) -> {
+      if (operationStats.getLastError() != null) {
+        System.out.printf("Last %s error: %s%n", operation.name().toLowerCase(), operationStats.getLastError());
+      }
+    });
+  }
+
+  private static String username(int index) {
+    return "load-user-" + index;
+  }
+
+  private static String password(String username) {
+    return username + "-secret";
+  }
+
+  Repository getRepository() {
+    return repository;
+  }
+
+  LoadMix getMix() {
+    return mix;
+  }
+
+  long getThinkMillis() {
+    return thinkMillis;
+  }
+
+  long getDeadline() {
+    return deadline;
+  }
+
+  OperationStats getStats(Operation operation) {
+    return stats.get(operation);
+  }
+
+  void notificationReceived() {
+    notifications.increment();
+  }
+
+  synchronized void addJoinKey(String joinKey) {
+    if (joinKey != null) joinKeys.add(joinKey);
+  }
+
+  synchronized String randomJoinKey(RandomGenerator random) {
+    return joinKeys.isEmpty() ? null : joinKeys.get(random.nextInt(joinKeys.size()));
+  }
+
+  private synchronized int joinKeyCount() {
+    return joinKeys.size();
+  }
+}
@@ -0,0 +1,64 @@
+package swe4.sos.server.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Relative weights of the operations a simulated user picks from, parsed from e.g.
+ * {@code "dashboard=30,vote=30,join=10"}. Operations that are not listed are never picked.
+ */
+public class LoadMix {
+
+  public enum Operation {
+    LOGIN, DASHBOARD, CREATE, JOIN, VOTE, REVOKE, CLOSE,
+    // Not part of the mix: the delta sync a client runs after being notified of changes
+    REFRESH
+  }
+
+  public static final String DEFAULT = "login=5,dashboard=30,create=5,join=10,vote=30,revoke=10,close=5";
+
+  private final Map<Operation, Integer> weights;
+  private final int totalWeight;
+
+  private LoadMix(Map<Operation, Integer> weights) {
+    this.weights = weights;
+    this.totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+  }
+
+  public static LoadMix parse(String mix) {
+    Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    for (String entry : mix.split(",")) {
+      if (entry.isBlank()) continue;
+      String[] nameAndWeight = entry.split("=");
+      if (nameAndWeight.length != 2) {
+        throw new IllegalArgumentException("Expected operation=weight, got '%s'".formatted(entry.trim()));
+      }
+      Operation operation = Operation.valueOf(nameAndWeight[0].trim().toUpperCase());
+      if (operation == Operation.REFRESH) {
+        throw new IllegalArgumentException("Refreshes follow notifications and can't be part of the mix");
+      }
+      int weight = Integer.parseInt(nameAndWeight[1].trim());
+      if (weight > 0) weights.put(operation, weight);
+    }
+    if (weights.isEmpty()) throw new IllegalArgumentException("The mix contains no operation");
+    return new LoadMix(weights);
+  }
+
+  public Operation next(RandomGenerator random) {
+    int pick = random.nextInt(totalWeight);
+    for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+      pick -= entry.getValue();
+      if (pick < 0) return entry.getKey();
+    }
+    throw new AssertionError();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder();
+    weights.forEach((operation, weight) -> result.append(result.isEmpty() ? "" : ",")
+      .append(operation.name().toLowerCase()).append('=').append(weight));
+    return result.toString();
+  }
+}
@@ -0,0 +1,47 @@
+package swe4.sos.server.load;
+
+import swe4.sos.server.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Latencies and outcomes of one operation type across all simulated users. */
+public class OperationStats {
+
+  private final LatencyHistogram latencies = new LatencyHistogram();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder skipped = new LongAdder();
+  private final AtomicReference<String> lastError = new AtomicReference<>();
+
+  // Failed calls are timed as well; a timeout shows up in the percentiles, not just as an error
+  void succeeded(long nanos) {
+    latencies.record(nanos);
+  }
+
+  void failed(long nanos, Throwable error) {
+    latencies.record(nanos);
+    errors.increment();
+    lastError.set(error.getClass().getSimpleName() + ": " + error.getMessage());
+  }
+
+  // The user had nothing to do it on, e.g. voting without having joined a survey
+  void skipped() {
+    skipped.increment();
+  }
+
+  public LatencyHistogram.Snapshot getLatencies() {
+    return latencies.snapshot();
+  }
+
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  public long getSkipped() {
+    return skipped.sum();
+  }
+
+  public String getLastError() {
+    return lastError.get();
+  }
+}
@@ -0,0 +1,196 @@
+package swe4.sos.server.load;
+
+import swe4.sos.gui.infrastructure.Repository;
+import swe4.sos.gui.infrastructure.SurveyReplica;
+import swe4.sos.gui.model.AppointmentSurvey;
+import swe4.sos.gui.model.SurveyOption;
+import swe4.sos.gui.model.SurveySummary;
+import swe4.sos.gui.model.User;
+import swe4.sos.server.client.ChangeEvent;
+import swe4.sos.server.client.ClientCallback;
+import swe4.sos.server.load.LoadMix.Operation;
+
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.random.RandomGenerator;
+
+/**
+ * One user of {@link LoadGenerator}: logs in, subscribes for change notifications like
+ * {@code Client} does and then keeps picking operations from the mix until the run ends, with an
+ * exponentially distributed think time in between. Like the client's dashboard it keeps a
+ * {@link SurveyReplica} and runs a delta sync after being notified, at most once per think time.
+ */
+class SimulatedUser implements ClientCallback, Runnable {
+
+  private final LoadGenerator generator;
+  private final Repository repository;
+  private final String username, password;
+  private final SplittableRandom random;
+  private final SurveyReplica replica = new SurveyReplica();
+  private final Set<Integer> publishedSurveys = new HashSet<>();
+  private final AtomicBoolean changesPending = new AtomicBoolean();
+  private int userId = -1;
+  private int createdSurveys;
+
+  SimulatedUser(LoadGenerator generator, String username, String password, long seed) {
+    this.generator = generator;
+    this.repository = generator.getRepository();
+    this.username = username;
+    this.password = password;
+    this.random = new SplittableRandom(seed);
+  }
+
+  @Override
+  public void run() {
+    if (!execute(Operation.LOGIN)) return;
+    try {
+      UnicastRemoteObject.exportObject(this, 0);
+      repository.addObserver(this, userId);
+    } catch (RemoteException e) {
+      generator.getStats(Operation.LOGIN).failed(0, e);
+      return;
+    }
+
+    try {
+      execute(Operation.DASHBOARD);
+      while (think()) {
+        if (changesPending.getAndSet(false)) execute(Operation.REFRESH);
+        execute(generator.getMix().next(random));
+      }
+    } finally {
+      try {
+        repository.removeObserver(this);
+      } catch (RemoteException e) {
+        // The server is gone; nothing left to unsubscribe from
+      }
+      try {
+        UnicastRemoteObject.unexportObject(this, true);
+      } catch (NoSuchObjectException e) {
+        // Not exported
+      }
+    }
+  }
+
+  @Override
+  public void notifyChange(ChangeEvent event) {
+    generator.notificationReceived();
+    changesPending.set(true);
+  }
+
+  // Returns false once the run is over
+  private boolean think() {
+    long remaining = generator.getDeadline() - System.nanoTime();
+    double mean = generator.getThinkMillis() * 1_000_000.0;
+    long pause = (long) Math.min(-mean * Math.log(1 - random.nextDouble()), Math.max(remaining, 0));
+    try {
+      Thread.sleep(pause / 1_000_000, (int) (pause % 1_000_000));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    return System.nanoTime() < generator.getDeadline();
+  }
+
+  // Runs and times the operation; returns false if it failed
+  private boolean execute(Operation operation) {
+    OperationStats stats = generator.getStats(operation);
+    long start = System.nanoTime();
+    try {
+      if (perform(operation)) stats.succeeded(System.nanoTime() - start);
+      else stats.skipped();
+      return true;
+    } catch (RemoteException | RuntimeException e) {
+      stats.failed(System.nanoTime() - start, e);
+      return false;
+    }
+  }
+
+  // Returns false if there was nothing to perform the operation on
+  private boolean perform(Operation operation) throws RemoteException {
+    switch (operation) {
+      case LOGIN -> {
+        User user = repository.authenticate(username, password);
+        if (user == null) throw new IllegalStateException("Login of " + username + " rejected");
+        userId = user.getId();
+      }
+      case DASHBOARD -> {
+        // Opening the dashboard afresh, e.g. after starting the client
+        replica.clear();
+        sync();
+      }
+      case REFRESH -> sync();
+      case CREATE -> {
+        createdSurveys++;
+        repository.addSurvey(userId, "%s survey %d".formatted(username, createdSurveys), "Load test", randomOptions(random));
+      }
+      case JOIN -> {
+        String joinKey = generator.randomJoinKey(random);
+        if (joinKey == null) return false;
+        repository.participateInSurvey(joinKey, userId);
+      }
+      case VOTE -> {
+        SurveySummary target = pick(replica.getParticipatedSurveys(), false);
+        if (target == null) return false;
+        // Like opening the survey view before voting
+        AppointmentSurvey survey = repository.getSurvey(target.getId());
+        if (survey == null || survey.getOptions().isEmpty()) return true;
+        Set<Integer> optionIds = new HashSet<>();
+        for (SurveyOption option : survey.getOptions()) {
+          if (random.nextBoolean()) optionIds.add(option.getId());
+        }
+        if (optionIds.isEmpty()) optionIds.add(survey.getOptions().first().getId());
+        Integer preferred = random.nextInt(3) == 0 ? optionIds.iterator().next() : null;
+        repository.castVotes(survey.getId(), userId, optionIds, preferred);
+      }
+      case REVOKE -> {
+        SurveySummary target = pick(replica.getParticipatedSurveys(), false);
+        if (target == null) return false;
+        repository.revokeVotes(target.getId(), userId);
+      }
+      case CLOSE -> {
+        SurveySummary target = pick(replica.getParticipatedSurveys(), true);
+        if (target == null) return false;
+        repository.closeSurvey(target.getId());
+      }
+    }
+    return true;
+  }
+
+  // Two to five time options on consecutive days within the next month
+  static List<SurveyOption> randomOptions(RandomGenerator random) {
+    List<SurveyOption> options = new ArrayList<>();
+    LocalDateTime day = LocalDateTime.now().plusDays(1 + random.nextInt(30)).withMinute(0).withSecond(0).withNano(0);
+    int count = 2 + random.nextInt(4);
+    for (int i = 0; i < count; i++) {
+      options.add(new SurveyOption(i + 1, day.plusDays(i).withHour(8 + random.nextInt(10))));
+    }
+    return options;
+  }
+
+  private void sync() throws RemoteException {
+    replica.sync(repository, userId);
+    // Hand out the join keys of new own surveys so other users can join them
+    for (SurveySummary summary : replica.getParticipatedSurveys()) {
+      if (summary.getCreatedByUserId() == userId && summary.isOpen() && publishedSurveys.add(summary.getId())) {
+        generator.addJoinKey(summary.getJoinKey());
+      }
+    }
+  }
+
+  // A random open survey, or null if there is none
+  private SurveySummary pick(List<SurveySummary> surveys, boolean ownOnly) {
+    List<SurveySummary> candidates = surveys.stream()
+      .filter(SurveySummary::isOpen)
+      .filter(s -> !ownOnly || s.getCreatedByUserId() == userId)
+      .toList();
+    return candidates.isEmpty() ? null : candidates.get(random.nextInt(candidates.size()));
+  }
+}
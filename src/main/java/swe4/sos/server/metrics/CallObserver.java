@@ -0,0 +1,8 @@
+package swe4.sos.server.metrics;
+
+/** Told by {@link InstrumentedRepository} when a repository call starts and ends, on the calling thread. */
+public interface CallObserver {
+  void callStarted(String method);
+
+  void callFinished(String method, boolean failed);
+}
@@ -0,0 +1,125 @@
+package swe4.sos.server.metrics;
+
+import swe4.sos.gui.infrastructure.Repository;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Wraps a {@link Repository} in a proxy that measures every method call, so new repository
+ * methods are covered without touching this class. Exceptions count as errors and are passed
+ * on unchanged. {@link #register} publishes the metrics as one MXBean per method. Each call
+ * is also recorded as a {@code swe4.sos.RepositoryCall} flight recorder event.
+ */
+public class InstrumentedRepository {
+
+  private static final CallObserver NO_OBSERVER = new CallObserver() {
+    public void callStarted(String method) {}
+    public void callFinished(String method, boolean failed) {}
+  };
+
+  private final Repository proxy;
+  private final Map<Method, MethodMetrics> metricsByMethod = new HashMap<>();
+  private final CallObserver observer;
+
+  public InstrumentedRepository(Repository target) {
+    this(target, NO_OBSERVER);
+  }
+
+  public InstrumentedRepository(Repository target, CallObserver observer) {
+    this.observer = observer;
+    Map<String, Long> overloads = Arrays.stream(Repository.class.getMethods())
+      .collect(Collectors.groupingBy(Method::getName, Collectors.counting()));
+    for (Method method : Repository.class.getMethods()) {
+      metricsByMethod.put(method, new MethodMetrics(overloads.get(method.getName()) > 1 ? signature(method) : method.getName()));
+    }
+    this.proxy = (Repository) Proxy.newProxyInstance(Repository.class.getClassLoader(),
+      new Class<?>[]{Repository.class}, new MeasuringHandler(target));
+  }
+
+  public Repository getRepository() {
+    return proxy;
+  }
+
+  public Collection<MethodMetrics> getMetrics() {
+    return metricsByMethod.values();
+  }
+
+  public void register(MBeanServer server) {
+    for (MethodMetrics metrics : metricsByMethod.values()) {
+      try {
+        server.registerMBean(metrics, objectName(metrics.getMethod()));
+      } catch (InstanceAlreadyExistsException | MBeanRegistrationException | NotCompliantMBeanException
+               | MalformedObjectNameException e) {
+        throw new IllegalStateException("Can't register metrics of " + metrics.getMethod(), e);
+      }
+    }
+  }
+
+  static ObjectName objectName(String method) throws MalformedObjectNameException {
+    return new ObjectName("swe4.sos:type=Repository,method=" + ObjectName.quote(method));
+  }
+
+  // Tells overloaded methods apart, e.g. getInvitedSurveys(int,SurveyPageRequest)
+  private static String signature(Method method) {
+    return Arrays.stream(method.getParameterTypes()).map(Class::getSimpleName)
+      .collect(Collectors.joining(",", method.getName() + "(", ")"));
+  }
+
+  private final class MeasuringHandler implements InvocationHandler {
+    private final Repository target;
+
+    private MeasuringHandler(Repository target) {
+      this.target = target;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      MethodMetrics metrics = metricsByMethod.get(method);
+      if (metrics == null) {
+        // equals, hashCode and toString of the proxy itself
+        return switch (method.getName()) {
+          case "equals" -> proxy == args[0];
+          case "hashCode" -> System.identityHashCode(proxy);
+          default -> "Instrumented " + target;
+        };
+      }
+
+      metrics.callStarted();
+      observer.callStarted(metrics.getMethod());
+      RepositoryCallEvent event = new RepositoryCallEvent();
+      event.begin();
+      long start = System.nanoTime();
+      boolean failed = true;
+      try {
+        Object result = method.invoke(target, args);
+        failed = false;
+        return result;
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      } finally {
+        metrics.callFinished(System.nanoTime() - start, failed);
+        observer.callFinished(metrics.getMethod(), failed);
+        event.end();
+        if (event.shouldCommit()) {
+          event.method = metrics.getMethod();
+          event.failed = failed;
+          event.commit();
+        }
+      }
+    }
+  }
+}
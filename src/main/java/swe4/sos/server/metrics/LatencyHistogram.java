@@ -0,0 +1,93 @@
+package swe4.sos.server.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets in the style of HdrHistogram: every power
+ * of two is split into 32 equal buckets, so a recorded value is off by at most about 3%, with a
+ * fixed footprint of ~10 KB for anything from a nanosecond up to 18 minutes. Recording is a few
+ * atomic increments, cheap enough to stay enabled; reading takes a snapshot of the counts.
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int MAX_EXPONENT = 40; // 2^40 ns, about 18 minutes; longer values are clamped
+  private static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+
+  private final AtomicLongArray counts = new AtomicLongArray(bucketIndex(MAX_VALUE) + 1);
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+  /** Counts, sum and percentiles of the values recorded up to the moment it was taken. */
+  public record Snapshot(long count, long totalNanos, long maxNanos, long[] counts) {
+
+    public double meanMillis() {
+      return count == 0 ? 0 : toMillis((double) totalNanos / count);
+    }
+
+    public double maxMillis() {
+      return toMillis(maxNanos);
+    }
+
+    /** Latency below which the given fraction (0..1) of the values lie, in milliseconds. */
+    public double percentileMillis(double fraction) {
+      if (count == 0) return 0;
+      long rank = Math.max(1, (long) Math.ceil(fraction * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) return toMillis(Math.min(bucketMidpoint(i), maxNanos));
+      }
+      return maxMillis();
+    }
+
+    private static double toMillis(double nanos) {
+      return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+  }
+
+  public void record(long nanos) {
+    long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+    counts.incrementAndGet(bucketIndex(value));
+    totalNanos.add(value);
+    maxNanos.accumulate(value);
+  }
+
+  // Not atomic across buckets: values recorded concurrently may or may not be included
+  public Snapshot snapshot() {
+    long[] copy = new long[counts.length()];
+    long count = 0;
+    for (int i = 0; i < copy.length; i++) {
+      copy[i] = counts.get(i);
+      count += copy[i];
+    }
+    return new Snapshot(count, totalNanos.sum(), maxNanos.get(), copy);
+  }
+
+  public void reset() {
+    for (int i = 0; i < counts.length(); i++) {
+      counts.set(i, 0);
+    }
+    totalNanos.reset();
+    maxNanos.reset();
+  }
+
+  // Values below 32 get a bucket each; above, the top 5 bits below the highest one pick the bucket
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKETS) return (int) value;
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+  }
+
+  static long bucketMidpoint(int index) {
+    if (index < SUB_BUCKETS) return index;
+    int shift = index / SUB_BUCKETS - 1;
+    long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) / 2;
+  }
+}
@@ -0,0 +1,82 @@
+package swe4.sos.server.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Counters and latency histograms of one repository method, split by outcome. */
+public class MethodMetrics implements RepositoryMethodMXBean {
+
+  private record LatencyView(LatencyHistogram.Snapshot snapshot) implements Latency {
+    public long getCount() { return snapshot.count(); }
+    public double getMeanMillis() { return snapshot.meanMillis(); }
+    public double getP50Millis() { return snapshot.percentileMillis(0.5); }
+    public double getP90Millis() { return snapshot.percentileMillis(0.9); }
+    public double getP99Millis() { return snapshot.percentileMillis(0.99); }
+    public double getP999Millis() { return snapshot.percentileMillis(0.999); }
+    public double getMaxMillis() { return snapshot.maxMillis(); }
+  }
+
+  private final String method;
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder inFlight = new LongAdder();
+  private final LatencyHistogram successLatency = new LatencyHistogram();
+  private final LatencyHistogram errorLatency = new LatencyHistogram();
+
+  MethodMetrics(String method) {
+    this.method = method;
+  }
+
+  void callStarted() {
+    inFlight.increment();
+  }
+
+  void callFinished(long nanos, boolean failed) {
+    inFlight.decrement();
+    calls.increment();
+    if (failed) {
+      errors.increment();
+      errorLatency.record(nanos);
+    } else {
+      successLatency.record(nanos);
+    }
+  }
+
+  @Override
+  public String getMethod() {
+    return method;
+  }
+
+  @Override
+  public long getCalls() {
+    return calls.sum();
+  }
+
+  @Override
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  @Override
+  public long getInFlight() {
+    return inFlight.sum();
+  }
+
+  @Override
+  public Latency getSuccessLatency() {
+    return new LatencyView(successLatency.snapshot());
+  }
+
+  @Override
+  public Latency getErrorLatency() {
+    return new LatencyView(errorLatency.snapshot());
+  }
+
+  // In-flight calls are still running and stay counted
+  @Override
+  public void reset() {
+    calls.reset();
+    errors.reset();
+    successLatency.reset();
+    errorLatency.reset();
+  }
+}
@@ -0,0 +1,19 @@
+package swe4.sos.server.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("swe4.sos.RepositoryCall")
+@Label("Repository Call")
+@Category({"SOS", "Server"})
+@Description("A remote call of a repository method, from the server's point of view")
+class RepositoryCallEvent extends Event {
+  @Label("Method")
+  String method;
+
+  @Label("Failed")
+  boolean failed;
+}
@@ -0,0 +1,34 @@
+package swe4.sos.server.metrics;
+
+/**
+ * JMX view of one {@code Repository} method, registered by the server as
+ * {@code swe4.sos:type=Repository,method=<name>}. Latencies are in milliseconds and cover
+ * the time since the start or the last {@link #reset}.
+ */
+public interface RepositoryMethodMXBean {
+
+  /** Latency distribution of the calls with one outcome. */
+  interface Latency {
+    long getCount();
+    double getMeanMillis();
+    double getP50Millis();
+    double getP90Millis();
+    double getP99Millis();
+    double getP999Millis();
+    double getMaxMillis();
+  }
+
+  String getMethod();
+
+  long getCalls();
+
+  long getErrors();
+
+  long getInFlight();
+
+  Latency getSuccessLatency();
+
+  Latency getErrorLatency();
+
+  void reset();
+}
@@ -0,0 +1,56 @@
+package swe4.sos.server.metrics;
+
+import java.util.List;
+
+/**
+ * JMX view of the JDBC statement profiler, registered as {@code swe4.sos:type=SqlProfiler}.
+ * Statements are grouped by the repository call that issued them.
+ */
+public interface SqlProfilerMXBean {
+
+  interface CallStatistics {
+    String getMethod();
+    long getCalls();
+    long getStatements();
+    long getConnections();
+    long getMaxStatementsPerCall();
+    double getSqlMillis();
+    long getNPlusOneCalls();
+  }
+
+  interface SlowStatement {
+    String getMethod();
+    String getSql();
+    String getParameters(); // types of the bound parameters, not their values
+    double getMillis();
+    String getTime();
+  }
+
+  /** A call that ran the same statement (ignoring parameters and IN list lengths) many times. */
+  interface NPlusOneOffender {
+    String getMethod();
+    String getSql();
+    int getExecutions();
+    String getTime();
+  }
+
+  long getStatements();
+
+  long getSlowStatementCount();
+
+  double getSlowThresholdMillis();
+
+  void setSlowThresholdMillis(double millis);
+
+  int getNPlusOneThreshold();
+
+  void setNPlusOneThreshold(int executions);
+
+  List<CallStatistics> getCallStatistics();
+
+  List<SlowStatement> getRecentSlowStatements();
+
+  List<NPlusOneOffender> getRecentNPlusOneOffenders();
+
+  void reset();
+}
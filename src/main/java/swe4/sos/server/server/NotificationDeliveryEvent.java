@@ -0,0 +1,25 @@
+package swe4.sos.server.server;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("swe4.sos.NotificationDelivery")
+@Label("Notification Delivery")
+@Category({"SOS", "Server"})
+@Description("The callback of one client for one change event, including the RMI round trip")
+class NotificationDeliveryEvent extends Event {
+  @Label("Type")
+  String type;
+
+  @Label("Survey Id")
+  int surveyId;
+
+  @Label("Version")
+  long version;
+
+  @Label("Outcome")
+  String outcome;
+}
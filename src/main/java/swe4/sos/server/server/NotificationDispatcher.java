@@ -0,0 +1,229 @@
+package swe4.sos.server.server;
+
+import swe4.sos.server.client.ChangeEvent;
+import swe4.sos.server.client.ClientCallback;
+
+import java.rmi.RemoteException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers change events to the registered clients without blocking the writer.
+ * Every client has its own bounded queue that is drained by a virtual thread, so a slow
+ * or dead client only delays itself. Clients that throw a {@link RemoteException} or
+ * repeatedly exceed the callback timeout are evicted.
+ * <p>
+ * A client subscribed for a user only receives events whose audience contains that user;
+ * a client subscribed without a user receives every event.
+ */
+public class NotificationDispatcher {
+
+  public record Config(int queueCapacity, Duration callbackTimeout, int maxFailures) {
+    public static Config defaults() {
+      return new Config(16, Duration.ofSeconds(2), 3);
+    }
+  }
+
+  public record Statistics(int subscribers, long published, long delivered, long dropped,
+                           long timeouts, long evicted) {
+  }
+
+  public static final int ALL_USERS = -1;
+
+  private final Config config;
+  private final Map<ClientCallback, Subscriber> subscribers = new ConcurrentHashMap<>();
+  private final ExecutorService callbackExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+  private final AtomicLong published = new AtomicLong();
+  private final AtomicLong delivered = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong timeouts = new AtomicLong();
+  private final AtomicLong evicted = new AtomicLong();
+
+  public NotificationDispatcher() {
+    this(Config.defaults());
+  }
+
+  public NotificationDispatcher(Config config) {
+    this.config = config;
+  }
+
+  public void addObserver(ClientCallback callback) {
+    addObserver(callback, ALL_USERS);
+  }
+
+  /** Registers the callback for the given user, or changes the user of an existing registration. */
+  public void addObserver(ClientCallback callback, int userId) {
+    subscribers.computeIfAbsent(callback, Subscriber::new).userId = userId;
+  }
+
+  public void removeObserver(ClientCallback callback) {
+    Subscriber subscriber = subscribers.remove(callback);
+    if (subscriber != null) subscriber.stop();
+  }
+
+  /** Queues an event for every client interested in one of the audience's users and returns immediately. */
+  public void publish(ChangeEvent.Type type, int surveyId, long version, Set<Integer> audience) {
+    NotificationFanOutEvent fanOut = new NotificationFanOutEvent();
+    fanOut.begin();
+    ChangeEvent event = new ChangeEvent(type, surveyId, version);
+    published.incrementAndGet();
+    int recipients = 0;
+    for (Subscriber subscriber : subscribers.values()) {
+      int userId = subscriber.userId;
+      if (userId == ALL_USERS || audience.contains(userId)) {
+        subscriber.enqueue(event);
+        recipients++;
+      }
+    }
+    fanOut.end();
+    if (fanOut.shouldCommit()) {
+      fanOut.type = type.name();
+      fanOut.surveyId = surveyId;
+      fanOut.version = version;
+      fanOut.audience = audience.size();
+      fanOut.recipients = recipients;
+      fanOut.commit();
+    }
+  }
+
+  public Statistics getStatistics() {
+    return new Statistics(subscribers.size(), published.get(), delivered.get(), dropped.get(),
+      timeouts.get(), evicted.get());
+  }
+
+  public void shutdown() {
+    subscribers.keySet().forEach(this::removeObserver);
+    callbackExecutor.shutdownNow();
+  }
+
+  private void evict(Subscriber subscriber, String reason) {
+    if (subscribers.remove(subscriber.callback, subscriber)) {
+      evicted.incrementAndGet();
+      subscriber.stop();
+      System.err.println("Removing stale observer: " + reason);
+    }
+  }
+
+  private final class Subscriber {
+    private final ClientCallback callback;
+    private final BlockingQueue<ChangeEvent> queue = new ArrayBlockingQueue<>(config.queueCapacity());
+    private final Thread drainer;
+    private volatile int userId = ALL_USERS;
+    private Future<?> inFlight;
+    private boolean resyncPending;
+    private int failures;
+
+    private Subscriber(ClientCallback callback) {
+      this.callback = callback;
+      this.drainer = Thread.ofVirtual().name("sos-notify-" + Integer.toHexString(callback.hashCode()))
+        .start(this::drain);
+    }
+
+    private void enqueue(ChangeEvent event) {
+      if (queue.offer(event)) return;
+
+      // The client can't keep up: replace its backlog with a single request to reload everything
+      synchronized (queue) {
+        dropped.addAndGet(queue.size() + 1);
+        queue.clear();
+        queue.offer(new ChangeEvent(ChangeEvent.Type.RESYNC, -1, event.version()));
+      }
+    }
+
+    private void stop() {
+      drainer.interrupt();
+    }
+
+    private void drain() {
+      try {
+        while (!Thread.currentThread().isInterrupted()) {
+          deliver(queue.take());
+        }
+      } catch (InterruptedException e) {
+        // Subscriber was removed
+      }
+    }
+
+    private void deliver(ChangeEvent event) throws InterruptedException {
+      if (!awaitInFlight()) {
+        // Still hanging; don't pile up more calls on this client. Like an overflowing queue,
+        // the event is dropped and the client reloads everything once it answers again
+        dropped.incrementAndGet();
+        resyncPending = true;
+        fail("previous callback still pending");
+        return;
+      }
+      if (resyncPending) {
+        // A reload covers this event as well as the ones dropped before
+        dropped.incrementAndGet();
+        resyncPending = false;
+        send(new ChangeEvent(ChangeEvent.Type.RESYNC, -1, event.version()));
+      } else {
+        send(event);
+      }
+    }
+
+    private void send(ChangeEvent event) throws InterruptedException {
+      NotificationDeliveryEvent delivery = new NotificationDeliveryEvent();
+      delivery.begin();
+      inFlight = callbackExecutor.submit(() -> {
+        callback.notifyChange(event);
+        return null;
+      });
+      String outcome = "delivered";
+      try {
+        inFlight.get(config.callbackTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        failures = 0;
+        delivered.incrementAndGet();
+      } catch (TimeoutException e) {
+        outcome = "timeout";
+        timeouts.incrementAndGet();
+        fail("callback timed out after " + config.callbackTimeout().toMillis() + " ms");
+      } catch (ExecutionException e) {
+        outcome = "failed";
+        evict(this, e.getCause().getMessage());
+      } finally {
+        delivery.end();
+        if (delivery.shouldCommit()) {
+          delivery.type = event.type().name();
+          delivery.surveyId = event.surveyId();
+          delivery.version = event.version();
+          delivery.outcome = outcome;
+          delivery.commit();
+        }
+      }
+    }
+
+    // Gives a call that timed out before another timeout to finish; returns false if it still hangs
+    private boolean awaitInFlight() throws InterruptedException {
+      if (inFlight == null || inFlight.isDone()) return true;
+      try {
+        inFlight.get(config.callbackTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        failures = 0;
+        return true;
+      } catch (TimeoutException e) {
+        timeouts.incrementAndGet();
+        return false;
+      } catch (ExecutionException e) {
+        evict(this, e.getCause().getMessage());
+        return false;
+      }
+    }
+
+    private void fail(String reason) {
+      if (++failures >= config.maxFailures()) evict(this, reason);
+    }
+  }
+}
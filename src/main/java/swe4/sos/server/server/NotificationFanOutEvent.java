@@ -0,0 +1,30 @@
+package swe4.sos.server.server;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("swe4.sos.NotificationFanOut")
+@Label("Notification Fan-Out")
+@Category({"SOS", "Server"})
+@Description("A change event being queued for every interested client")
+class NotificationFanOutEvent extends Event {
+  @Label("Type")
+  String type;
+
+  @Label("Survey Id")
+  int surveyId;
+
+  @Label("Version")
+  long version;
+
+  @Label("Audience")
+  @Description("Users the change concerns")
+  int audience;
+
+  @Label("Recipients")
+  @Description("Clients the event was queued for")
+  int recipients;
+}
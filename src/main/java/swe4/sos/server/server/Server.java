@@ -1,9 +1,14 @@
 package swe4.sos.server.server;
 
 import swe4.sos.db.DBRepository;
+import swe4.sos.db.SchemaMigrator;
+import swe4.sos.server.metrics.InstrumentedRepository;
 import swe4.sos.gui.infrastructure.FakeRepository;
-import swe4.sos.gui.infrastructure.Repository;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.net.MalformedURLException;
 import java.rmi.Naming;
 import java.rmi.Remote;
@@ -32,12 +37,48 @@ public final class Server {
     String internalUrl = "rmi://localhost:%d/SOS".formatted(registryPort);
     String externalUrl = "rmi://%s:%d/SOS".formatted(serverHostName, registryPort);
 
-    Repository repo = DBRepository.getInstance(CONNECTION_STRING, USER_NAME, PASSWORD);
-    Remote repoStub = UnicastRemoteObject.exportObject(repo, registryPort);
+    // -Dsos.repository=fake serves the in-memory FakeRepository instead of MySQL, e.g. for load tests
+    InstrumentedRepository instrumented;
+    MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    if ("fake".equals(System.getProperty("sos.repository"))) {
+      instrumented = new InstrumentedRepository(FakeRepository.getInstance());
+      instrumented.register(mBeanServer);
+    } else {
+      instrumented = startDatabase(mBeanServer);
+    }
+
+    Remote repoStub = UnicastRemoteObject.exportObject(instrumented.getRepository(), registryPort);
 
     LocateRegistry.createRegistry(registryPort);
     Naming.rebind(internalUrl, repoStub);
 
     System.out.printf("SOS is running at '%s'%n", externalUrl);
   }
+
+  private static InstrumentedRepository startDatabase(MBeanServer mBeanServer) {
+    DBRepository repo = DBRepository.getInstance(CONNECTION_STRING, USER_NAME, PASSWORD);
+    for (SchemaMigrator.Migration migration : repo.migrateSchema()) {
+      System.out.printf("Applied schema migration %d: %s%n", migration.version(), migration.description());
+    }
+    int repairedTallies = repo.verifyTallies(true).size();
+    if (repairedTallies > 0) {
+      System.out.printf("Repaired vote tallies of %d options%n", repairedTallies);
+    }
+    // -Dsos.checkQueryPlans=<minRows> reports full table scans of the hot queries at startup
+    Long minScanRows = Long.getLong("sos.checkQueryPlans");
+    if (minScanRows != null) {
+      repo.checkQueryPlans(minScanRows).forEach(finding -> System.out.println("Query plan warning: " + finding));
+    }
+
+    // Every remote call is measured (swe4.sos:type=Repository MBeans, e.g. in JConsole or VisualVM),
+    // and its SQL statements are profiled per call (swe4.sos:type=SqlProfiler)
+    InstrumentedRepository instrumented = new InstrumentedRepository(repo, repo.getSqlProfiler());
+    instrumented.register(mBeanServer);
+    try {
+      mBeanServer.registerMBean(repo.getSqlProfiler(), new ObjectName("swe4.sos:type=SqlProfiler"));
+    } catch (JMException e) {
+      throw new IllegalStateException("Can't register the SQL profiler", e);
+    }
+    return instrumented;
+  }
 }
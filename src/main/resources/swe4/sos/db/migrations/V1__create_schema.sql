@@ -0,0 +1,45 @@
+-- Base schema of the SOS database, as created by the original setup script.
+-- Later changes go into their own scripts; a database without schema_version is baselined here.
+create table `user` (id int auto_increment primary key,
+                     username varchar(30) not null unique,
+                     email varchar(40) not null unique,
+                     password varchar(30) not null);
+
+create table survey (id int auto_increment primary key,
+                     created_by int not null,
+                     foreign key (created_by)
+                                   references `user`(id) on delete cascade,
+                     label varchar(30) not null,
+                     description varchar(255) not null,
+                     created_at datetime not null,
+                     joinkey varchar(40) not null unique,
+                     open tinyint(1) not null);
+
+create table invitation (user_id int not null,
+                         foreign key (user_id)
+                                references `user`(id) on delete cascade,
+                         survey_id int not null,
+                         foreign key (survey_id)
+                                references survey(id) on delete cascade,
+                         constraint invitation_user_survey_ids_pk primary key (user_id, survey_id));
+
+create table participation (user_id int not null,
+                            foreign key (user_id)
+                                   references `user`(id) on delete cascade,
+                            survey_id int not null,
+                            foreign key (survey_id)
+                                   references survey(id) on delete cascade,
+                            constraint participation_user_survey_ids_pk primary key (user_id, survey_id));
+
+create table survey_option (id int auto_increment primary key,
+                            timeOption datetime not null,
+                            survey_id int not null,
+                            foreign key (survey_id)
+                                references survey(id) on delete cascade);
+
+create table vote (user_id int not null,
+                   foreign key (user_id) references `user`(id) on delete cascade,
+                   survey_option_id int not null,
+                   foreign key (survey_option_id) references survey_option(id) on delete cascade,
+                   constraint vote_user_option_ids_pk primary key (user_id, survey_option_id),
+                   is_preferred tinyint(1));
@@ -0,0 +1,11 @@
+-- Change versions for delta synchronization; existing surveys start at version 0
+alter table survey add column version bigint not null default 0;
+create index survey_version_idx on survey (version);
+
+-- Users who lost access to a survey (deleted, declined, uninvited)
+create table survey_removal (survey_id int not null,
+                             user_id int not null,
+                             foreign key (user_id) references `user`(id) on delete cascade,
+                             version bigint not null,
+                             constraint survey_removal_survey_user_ids_pk primary key (survey_id, user_id),
+                             index survey_removal_user_version_idx (user_id, version));
@@ -0,0 +1,3 @@
+-- Keyset pagination of a creator's surveys and of all surveys
+create index survey_created_by_created_at_idx on survey (created_by, created_at, id);
+create index survey_created_at_idx on survey (created_at, id);
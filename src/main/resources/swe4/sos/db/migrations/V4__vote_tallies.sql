@@ -0,0 +1,8 @@
+-- Tallies of the vote rows, kept in step by every vote write
+alter table survey_option add column vote_count int not null default 0;
+alter table survey_option add column preferred_count int not null default 0;
+
+-- Count the votes cast before the columns existed
+update survey_option so
+set vote_count = (select count(*) from vote v where v.survey_option_id = so.id),
+    preferred_count = (select count(*) from vote v where v.survey_option_id = so.id and v.is_preferred = 1);
@@ -0,0 +1,8 @@
+-- Reverse lookups by survey: the primary keys start with user_id and cannot serve them.
+-- These replace the implicit foreign key indexes MySQL created on the same columns.
+create index vote_survey_option_idx on vote (survey_option_id);
+create index invitation_survey_idx on invitation (survey_id);
+create index participation_survey_idx on participation (survey_id);
+-- Options of a survey in time order
+create index survey_option_survey_time_idx on survey_option (survey_id, timeOption);
+-- survey(created_by) is covered by survey_created_by_created_at_idx
@@ -0,0 +1,164 @@
+package swe4.sos.gui.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Round trips through the hand-written encoding of AppointmentSurvey and SurveyOption. */
+class CompactEncodingTest {
+
+  private static final LocalDateTime TIME = LocalDateTime.of(2026, 10, 18, 14, 30, 15, 123_456_789);
+
+  @SuppressWarnings("unchecked")
+  private static <T> T roundTrip(T object) throws IOException, ClassNotFoundException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(object);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      return (T) in.readObject();
+    }
+  }
+
+  private static List<Integer> optionIds(AppointmentSurvey survey) {
+    return survey.getOptions().stream().map(SurveyOption::getId).toList();
+  }
+
+  private static void assertSameOption(SurveyOption expected, SurveyOption actual) {
+    assertEquals(expected.getId(), actual.getId());
+    assertEquals(expected.getTimeOption(), actual.getTimeOption());
+    assertEquals(expected.getVotedUserIds(), actual.getVotedUserIds());
+    assertEquals(expected.getPreferredUserIds(), actual.getPreferredUserIds());
+    assertEquals(expected.hasVoterSets(), actual.hasVoterSets());
+    assertEquals(expected.getWeight(), actual.getWeight());
+    assertEquals(expected.getPreferredWeight(), actual.getPreferredWeight());
+  }
+
+  private static void assertSameSurvey(AppointmentSurvey expected, AppointmentSurvey actual) {
+    assertEquals(expected.getId(), actual.getId());
+    assertEquals(expected.getCreatedByUserId(), actual.getCreatedByUserId());
+    assertEquals(expected.getLabel(), actual.getLabel());
+    assertEquals(expected.getDescription(), actual.getDescription());
+    assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+    assertEquals(expected.getJoinKey(), actual.getJoinKey());
+    assertEquals(expected.isOpen(), actual.isOpen());
+    assertEquals(expected.getVersion(), actual.getVersion());
+    assertEquals(expected.getInvitedUserIds(), actual.getInvitedUserIds());
+    assertEquals(expected.getParticipantUserIds(), actual.getParticipantUserIds());
+    assertEquals(optionIds(expected), optionIds(actual));
+    List<SurveyOption> expectedOptions = List.copyOf(expected.getOptions());
+    List<SurveyOption> actualOptions = List.copyOf(actual.getOptions());
+    for (int i = 0; i < expectedOptions.size(); i++) {
+      assertSameOption(expectedOptions.get(i), actualOptions.get(i));
+    }
+  }
+
+  @Test
+  void surveyWithEmptySets() throws Exception {
+    AppointmentSurvey survey = new AppointmentSurvey(1, 2, "Empty", "", TIME, "key");
+    survey.getParticipantUserIds().clear();
+
+    AppointmentSurvey copy = roundTrip(survey);
+
+    assertSameSurvey(survey, copy);
+    assertTrue(copy.getInvitedUserIds().isEmpty());
+    assertTrue(copy.getParticipantUserIds().isEmpty());
+    assertTrue(copy.getOptions().isEmpty());
+  }
+
+  @Test
+  void surveyWithNegativeAndLargeIds() throws Exception {
+    AppointmentSurvey survey = new AppointmentSurvey(Integer.MAX_VALUE, Integer.MIN_VALUE, "Ids", "d", TIME, "key");
+    for (int id : new int[] {Integer.MIN_VALUE, -1_000_000, -1, 0, 1, 127, 128, 1_000_000, Integer.MAX_VALUE}) {
+      survey.inviteUser(id);
+      survey.join(id);
+    }
+    survey.setVersion(Long.MAX_VALUE);
+
+    assertSameSurvey(survey, roundTrip(survey));
+  }
+
+  @Test
+  void surveyWithoutCreationTime() throws Exception {
+    AppointmentSurvey survey = new AppointmentSurvey(3, 1, "No time", "d", null, "key");
+    survey.close();
+
+    AppointmentSurvey copy = roundTrip(survey);
+
+    assertNull(copy.getCreatedAt());
+    assertSameSurvey(survey, copy);
+  }
+
+  @Test
+  void timesBefore1970() throws Exception {
+    LocalDateTime early = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_999);
+    LocalDateTime ancient = LocalDateTime.of(1, 1, 1, 0, 0);
+    AppointmentSurvey survey = new AppointmentSurvey(4, 1, "Old", "d", ancient,  "key",
+      List.of(new SurveyOption(1, early), new SurveyOption(2, ancient), new SurveyOption(3, LocalDateTime.MAX)));
+
+    AppointmentSurvey copy = roundTrip(survey);
+
+    assertEquals(ancient, copy.getCreatedAt());
+    assertSameSurvey(survey, copy);
+  }
+
+  @Test
+  void optionsKeepTheirVotesAndRankOrder() throws Exception {
+    SurveyOption first = new SurveyOption(10, TIME.plusDays(1));
+    first.vote(1);
+    first.vote(2);
+    first.prefer(2);
+    SurveyOption second = new SurveyOption(11, TIME.plusDays(2));
+    second.vote(3);
+    SurveyOption third = new SurveyOption(-5, TIME);
+    AppointmentSurvey survey = new AppointmentSurvey(5, 1, "Votes", "d", TIME, "key", List.of(third, second, first));
+
+    AppointmentSurvey copy = roundTrip(survey);
+
+    assertEquals(List.of(10, 11, -5), optionIds(copy));
+    assertSameSurvey(survey, copy);
+  }
+
+  @Test
+  void optionsWithTallies() throws Exception {
+    AppointmentSurvey survey = new AppointmentSurvey(6, 1, "Tallies", "d", TIME, "key", List.of(
+      SurveyOption.withTallies(1, TIME, 0, 0),
+      SurveyOption.withTallies(2, TIME.plusHours(1), 7, 3),
+      SurveyOption.withTallies(3, TIME.plusHours(2), Integer.MAX_VALUE - 1, 1)));
+
+    AppointmentSurvey copy = roundTrip(survey);
+
+    assertEquals(List.of(3, 2, 1), optionIds(copy));
+    assertSameSurvey(survey, copy);
+    copy.getOptions().forEach(option -> assertFalse(option.hasVoterSets()));
+  }
+
+  @Test
+  void standaloneOptionWithoutTime() throws Exception {
+    SurveyOption option = new SurveyOption(Integer.MIN_VALUE, null);
+    option.vote(Integer.MAX_VALUE);
+    option.prefer(-1);
+
+    SurveyOption copy = roundTrip(option);
+
+    assertNull(copy.getTimeOption());
+    assertSameOption(option, copy);
+    assertEquals(Set.of(Integer.MAX_VALUE), copy.getVotedUserIds());
+  }
+
+  @Test
+  void standaloneOptionWithTallies() throws Exception {
+    SurveyOption option = SurveyOption.withTallies(42, TIME, 5, 0);
+
+    assertSameOption(option, roundTrip(option));
+  }
+}